@@ -0,0 +1,25 @@
+package com.campusconnect.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor laneAwareDataSourcePostProcessor(ObjectProvider<BulkheadRegistry> bulkheadRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LaneAwareDataSource)) {
+                    return new LaneAwareDataSource(dataSource, bulkheadRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.campusconnect.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@EnableConfigurationProperties(BulkheadProperties.class)
+@Slf4j
+public class BulkheadRegistry {
+
+    @Getter
+    private final boolean enabled;
+    private final Map<ExecutionLane, Bulkhead> bulkheads = new EnumMap<>(ExecutionLane.class);
+
+    public BulkheadRegistry(
+            BulkheadProperties properties,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize
+    ) {
+        this.enabled = properties.isEnabled();
+
+        int jdbcShares = 0;
+        for (ExecutionLane lane : ExecutionLane.values()) {
+            BulkheadProperties.Lane settings = properties.lane(lane);
+            bulkheads.put(lane, new Bulkhead(lane, settings));
+            jdbcShares += settings.getJdbcConnections();
+        }
+
+        if (enabled && jdbcShares > poolSize) {
+            log.warn("Bulkhead JDBC shares ({}) exceed the connection pool size ({}); lanes can still starve each other",
+                    jdbcShares, poolSize);
+        }
+    }
+
+    public Bulkhead get(ExecutionLane lane) {
+        return bulkheads.get(lane);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        bulkheads.forEach((lane, bulkhead) -> lanes.put(lane.name().toLowerCase(), bulkhead.snapshot()));
+        return lanes;
+    }
+}
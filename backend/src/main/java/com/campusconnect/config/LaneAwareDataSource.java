@@ -0,0 +1,91 @@
+package com.campusconnect.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many pooled connections each execution lane may hold, so one lane cannot drain
+ * the shared HikariCP pool. Connections requested outside of a lane (startup, scheduled work)
+ * go straight to the pool.
+ */
+public class LaneAwareDataSource extends DelegatingDataSource {
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public LaneAwareDataSource(DataSource targetDataSource, BulkheadRegistry bulkheadRegistry) {
+        super(targetDataSource);
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guard(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guard(() -> super.getConnection(username, password));
+    }
+
+    private Connection guard(ConnectionSupplier supplier) throws SQLException {
+        ExecutionLane lane = ExecutionLane.current();
+        if (!bulkheadRegistry.isEnabled() || lane == null) {
+            return supplier.get();
+        }
+
+        Bulkhead bulkhead = bulkheadRegistry.get(lane);
+        try {
+            if (!bulkhead.tryAcquireConnection()) {
+                throw new SQLTransientConnectionException(
+                        "Connection share for lane " + lane.name().toLowerCase() + " exhausted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a connection", e);
+        }
+
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.releaseConnection();
+            throw e;
+        }
+        return releasingOnClose(connection, bulkhead);
+    }
+
+    private static Connection releasingOnClose(Connection connection, Bulkhead bulkhead) {
+        AtomicBoolean released = new AtomicBoolean(false);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            bulkhead.releaseConnection();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,37 @@
+package com.campusconnect.config;
+
+import com.campusconnect.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "quota")
+public class QuotaProperties {
+
+    private boolean enabled = true;
+
+    // Tokens (prompt + completion) per calendar day and month; 0 means unlimited
+    private Limits user = new Limits(50_000, 1_000_000);
+    private Limits admin = new Limits(0, 0);
+    private Limits superAdmin = new Limits(0, 0);
+
+    public Limits limits(User.Role role) {
+        return switch (role) {
+            case USER -> user;
+            case ADMIN -> admin;
+            case SUPER_ADMIN -> superAdmin;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        private long dailyTokens;
+
+        private long monthlyTokens;
+    }
+}
@@ -0,0 +1,26 @@
+package com.campusconnect.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ReactiveConfig {
+
+    /**
+     * Blocking JPA work from the reactive chat pipeline runs here; the thread cap keeps it
+     * within the JDBC pool no matter how many streams are open. Its threads run in the chat
+     * lane, so WebSocket turns and work resumed from Groq callbacks get the chat connection share.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(
+            @Value("${reactive.jdbc.threads:4}") int threads,
+            @Value("${reactive.jdbc.queue:10000}") int queuedTasks
+    ) {
+        // 60 s is Reactor's default idle time for bounded elastic threads
+        return Schedulers.newBoundedElastic(threads, queuedTasks,
+                ExecutionLane.threadFactory(ExecutionLane.CHAT, "chat-jdbc", false), 60);
+    }
+}
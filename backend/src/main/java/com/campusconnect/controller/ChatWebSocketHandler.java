@@ -0,0 +1,238 @@
+package com.campusconnect.controller;
+
+import com.campusconnect.config.Bulkhead;
+import com.campusconnect.config.BulkheadRegistry;
+import com.campusconnect.config.ExecutionLane;
+import com.campusconnect.dto.ChatRequest;
+import com.campusconnect.dto.ChatSocketFrame;
+import com.campusconnect.dto.ChatStreamEvent;
+import com.campusconnect.exception.QuotaExceededException;
+import com.campusconnect.security.JwtHandshakeInterceptor;
+import com.campusconnect.service.ChatService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chat over a persistent WebSocket at {@code /ws/chat}. The user is authenticated once at the
+ * handshake; each turn is then a small JSON frame and gets the same {@link ChatService}
+ * pipeline as {@code /api/chat/reactive/stream}, answered with {@code token} frames and a
+ * final {@code done} (or {@code error}) frame carrying the client's turn id.
+ *
+ * <p>Client frames: {@code {"type":"chat","id":"t1","message":"...","sessionId":1,"category":"Fees"}},
+ * {@code {"type":"cancel","id":"t1"}} and {@code {"type":"ping"}}. A cancelled turn is recorded
+ * and charged like a finished one, up to where it stopped.
+ *
+ * <p>Each connection may have {@code ws.chat.max-in-flight} turns running, and every turn holds a
+ * chat lane slot like an HTTP chat request. Outbound frames are buffered per connection; a client
+ * that falls behind the send time or buffer limit is disconnected instead of holding memory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String CHAT = "chat";
+    private static final String CANCEL = "cancel";
+    private static final String PING = "ping";
+
+    private final ChatService chatService;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ws.chat.max-in-flight:1}")
+    private int maxInFlight;
+
+    @Value("${ws.chat.send-time-limit.ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${ws.chat.send-buffer.kb:512}")
+    private int sendBufferKb;
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("chat.ws.connections", connections, Map::size)
+                .description("Open chat WebSocket connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession outbound = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferKb * 1024);
+        connections.put(session.getId(), new Connection(
+                outbound,
+                (String) session.getAttributes().get(JwtHandshakeInterceptor.USERNAME),
+                (Long) session.getAttributes().get(JwtHandshakeInterceptor.EXPIRES_AT)));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+
+        ClientFrame frame;
+        try {
+            frame = objectMapper.readValue(message.getPayload(), ClientFrame.class);
+        } catch (JsonProcessingException e) {
+            connection.send(ChatSocketFrame.error(null, HttpStatus.BAD_REQUEST.value(), "Malformed frame"));
+            return;
+        }
+
+        if (PING.equals(frame.type())) {
+            connection.send(ChatSocketFrame.pong());
+        } else if (CANCEL.equals(frame.type())) {
+            // ChatService charges a cancelled turn before the dispose returns and saves what was
+            // streamed, so cancelling frees the slot without escaping the quota
+            Disposable turn = frame.id() != null ? connection.turns.get(frame.id()) : null;
+            if (turn != null) {
+                turn.dispose();
+            }
+        } else if (CHAT.equals(frame.type())) {
+            startTurn(connection, frame);
+        } else {
+            connection.send(ChatSocketFrame.error(frame.id(), HttpStatus.BAD_REQUEST.value(), "Unknown frame type"));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            connection.turns.values().forEach(Disposable::dispose);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Chat WebSocket {} transport error: {}", session.getId(), exception.getMessage());
+    }
+
+    private void startTurn(Connection connection, ClientFrame frame) throws IOException {
+        String id = frame.id();
+        if (id == null) {
+            connection.send(ChatSocketFrame.error(null, HttpStatus.BAD_REQUEST.value(), "Turn id is required"));
+            return;
+        }
+        if (System.currentTimeMillis() >= connection.tokenExpiresAt) {
+            // The client reconnects with a refreshed token
+            connection.session.close(CloseStatus.POLICY_VIOLATION.withReason("Token expired"));
+            return;
+        }
+
+        ChatRequest request = new ChatRequest();
+        request.setMessage(frame.message());
+        request.setSessionId(frame.sessionId());
+        request.setCategory(frame.category());
+        Set<ConstraintViolation<ChatRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            connection.send(ChatSocketFrame.error(id, HttpStatus.BAD_REQUEST.value(), violations.iterator().next().getMessage()));
+            return;
+        }
+        if (connection.turns.size() >= maxInFlight || connection.turns.containsKey(id)) {
+            connection.send(ChatSocketFrame.error(id, HttpStatus.TOO_MANY_REQUESTS.value(), "Wait for the current reply to finish"));
+            return;
+        }
+
+        Bulkhead bulkhead = bulkheadRegistry.isEnabled() ? bulkheadRegistry.get(ExecutionLane.CHAT) : null;
+        if (bulkhead != null && !bulkhead.tryEnterNow()) {
+            connection.send(ChatSocketFrame.error(id, HttpStatus.SERVICE_UNAVAILABLE.value(), "Service is busy, please retry shortly"));
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable release = () -> {
+            if (bulkhead != null && released.compareAndSet(false, true)) {
+                bulkhead.exit();
+            }
+        };
+
+        // Registered before subscribing: a turn answered locally may finish inside subscribe()
+        Disposable.Swap turn = Disposables.swap();
+        connection.turns.put(id, turn);
+        try {
+            turn.update(chatService.streamMessage(connection.username, request)
+                    .doFinally(signal -> {
+                        connection.turns.remove(id);
+                        release.run();
+                    })
+                    .subscribe(
+                            event -> connection.send(toFrame(id, event)),
+                            error -> connection.send(ChatSocketFrame.error(id, status(error), error.getMessage()))));
+        } catch (RuntimeException e) {
+            connection.turns.remove(id);
+            release.run();
+            connection.send(ChatSocketFrame.error(id, status(e), e.getMessage()));
+        }
+    }
+
+    private static ChatSocketFrame toFrame(String id, ChatStreamEvent event) {
+        return switch (event.getType()) {
+            case "done" -> ChatSocketFrame.done(id, event.getResponse());
+            case "error" -> ChatSocketFrame.interrupted(id, event.getResponse());
+            default -> ChatSocketFrame.token(id, event.getDelta());
+        };
+    }
+
+    private static int status(Throwable error) {
+        return error instanceof QuotaExceededException
+                ? HttpStatus.TOO_MANY_REQUESTS.value()
+                : HttpStatus.BAD_REQUEST.value();
+    }
+
+    private record ClientFrame(String type, String id, String message, Long sessionId, String category) {
+    }
+
+    private final class Connection {
+
+        private final WebSocketSession session;
+        private final String username;
+        private final long tokenExpiresAt;
+        private final Map<String, Disposable> turns = new ConcurrentHashMap<>();
+
+        private Connection(WebSocketSession session, String username, Long tokenExpiresAt) {
+            this.session = session;
+            this.username = username;
+            this.tokenExpiresAt = tokenExpiresAt != null ? tokenExpiresAt : Long.MAX_VALUE;
+        }
+
+        void send(ChatSocketFrame frame) {
+            if (!session.isOpen()) {
+                return;
+            }
+            try {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+            } catch (IOException | RuntimeException e) {
+                // The decorator closes connections that exceed the send limits
+                log.debug("Dropping chat WebSocket {}: {}", session.getId(), e.getMessage());
+                turns.values().forEach(Disposable::dispose);
+            }
+        }
+    }
+}
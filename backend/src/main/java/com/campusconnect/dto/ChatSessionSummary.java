@@ -0,0 +1,22 @@
+package com.campusconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatSessionSummary {
+    
+    public static final int PREVIEW_LENGTH = 120;
+    
+    private Long id;
+    private String title;
+    private String category;
+    private Integer messageCount;
+    private LocalDateTime updatedAt;
+    private String lastMessage; // truncated to PREVIEW_LENGTH characters
+}
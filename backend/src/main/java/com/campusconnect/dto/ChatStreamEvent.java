@@ -0,0 +1,27 @@
+package com.campusconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatStreamEvent {
+    
+    private String type; // 'token', 'done' or 'error' (answer cut off; response holds what was saved)
+    private String delta;
+    private ChatResponse response;
+    
+    public static ChatStreamEvent token(String delta) {
+        return new ChatStreamEvent("token", delta, null);
+    }
+    
+    public static ChatStreamEvent done(ChatResponse response) {
+        return new ChatStreamEvent("done", null, response);
+    }
+    
+    public static ChatStreamEvent error(ChatResponse response) {
+        return new ChatStreamEvent("error", null, response);
+    }
+}
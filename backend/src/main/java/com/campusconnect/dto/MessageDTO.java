@@ -0,0 +1,21 @@
+package com.campusconnect.dto;
+
+import com.campusconnect.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageDTO {
+    
+    private Long id;
+    private Message.Role role;
+    private String content;
+    private String category;
+    private String feedback;
+    private LocalDateTime timestamp;
+}
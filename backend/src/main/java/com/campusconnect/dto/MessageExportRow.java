@@ -0,0 +1,19 @@
+package com.campusconnect.dto;
+
+import com.campusconnect.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageExportRow {
+    
+    private Long sessionId;
+    private Message.Role role;
+    private String content;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,20 @@
+package com.campusconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageWindow {
+    
+    private Long sessionId;
+    private List<MessageDTO> messages; // oldest first
+    private boolean hasOlder;
+    private boolean hasNewer;
+    private Long before; // pass as ?before= to load older turns
+    private Long after;  // pass as ?after= to load newer turns
+}
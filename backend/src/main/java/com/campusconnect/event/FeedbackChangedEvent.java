@@ -0,0 +1,28 @@
+package com.campusconnect.event;
+
+import com.campusconnect.model.Message;
+
+import java.time.LocalDateTime;
+
+public record FeedbackChangedEvent(
+        Long messageId,
+        Long sessionId,
+        Message.Role role,
+        String category,
+        LocalDateTime timestamp,
+        String previousFeedback,
+        String feedback
+) {
+
+    public static FeedbackChangedEvent of(Message message, String previousFeedback) {
+        return new FeedbackChangedEvent(
+                message.getId(),
+                message.getSession().getId(),
+                message.getRole(),
+                message.getCategory(),
+                message.getTimestamp(),
+                previousFeedback,
+                message.getFeedback()
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.campusconnect.event;
+
+import com.campusconnect.model.Message;
+
+import java.time.LocalDateTime;
+
+public record MessageSavedEvent(
+        Long messageId,
+        Long sessionId,
+        Long userId,
+        Message.Role role,
+        String category,
+        String content,
+        LocalDateTime timestamp
+) {
+
+    public static MessageSavedEvent of(Message message, Long userId) {
+        return new MessageSavedEvent(
+                message.getId(),
+                message.getSession().getId(),
+                userId,
+                message.getRole(),
+                message.getCategory(),
+                message.getContent(),
+                message.getTimestamp()
+        );
+    }
+}
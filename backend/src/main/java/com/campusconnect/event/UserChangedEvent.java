@@ -0,0 +1,24 @@
+package com.campusconnect.event;
+
+import com.campusconnect.model.User;
+
+public record UserChangedEvent(Type type, Long userId, String name, String email, boolean wasActive, boolean active) {
+
+    public enum Type {
+        REGISTERED,
+        UPDATED,
+        DELETED
+    }
+
+    public static UserChangedEvent registered(User user) {
+        return new UserChangedEvent(Type.REGISTERED, user.getId(), user.getName(), user.getEmail(), false, user.getActive());
+    }
+
+    public static UserChangedEvent updated(User user, boolean wasActive) {
+        return new UserChangedEvent(Type.UPDATED, user.getId(), user.getName(), user.getEmail(), wasActive, user.getActive());
+    }
+
+    public static UserChangedEvent deleted(User user) {
+        return new UserChangedEvent(Type.DELETED, user.getId(), user.getName(), user.getEmail(), user.getActive(), false);
+    }
+}
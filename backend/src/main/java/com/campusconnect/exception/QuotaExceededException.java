@@ -0,0 +1,16 @@
+package com.campusconnect.exception;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class QuotaExceededException extends RuntimeException {
+
+    private final LocalDateTime resetsAt;
+
+    public QuotaExceededException(String message, LocalDateTime resetsAt) {
+        super(message);
+        this.resetsAt = resetsAt;
+    }
+}
@@ -1,10 +1,12 @@
 package com.campusconnect.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,7 +15,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "chat_sessions")
+@Table(name = "chat_sessions", indexes = {
+        @Index(name = "idx_chat_sessions_user_updated", columnList = "user_id, updated_at, id"),
+        @Index(name = "idx_chat_sessions_user_version", columnList = "user_id, change_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,10 +42,17 @@ public class ChatSession {
 
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnoreProperties("session")
+    @BatchSize(size = 50)
+    @OrderBy("timestamp ASC, id ASC")
     private List<Message> messages = new ArrayList<>();
 
     private Integer messageCount = 0;
 
+    // Only written by SessionChangeFeed, so saving the entity cannot move it backwards
+    @JsonIgnore
+    @Column(name = "change_version", updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long changeVersion = 0L;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
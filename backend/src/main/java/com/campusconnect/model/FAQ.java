@@ -29,6 +29,8 @@ public class FAQ {
     @Column(nullable = false)
     private String category;
 
+    // Only written by FaqService's counter flush, so saving an edited FAQ cannot overwrite views
+    @Column(updatable = false)
     private Integer viewCount = 0;
 
     private Boolean active = true;
@@ -1,5 +1,6 @@
 package com.campusconnect.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -10,7 +11,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_session_time", columnList = "session_id, timestamp, id"),
+        @Index(name = "idx_messages_timestamp", columnList = "timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,12 +38,21 @@ public class Message {
 
     private String category;
 
+    // Set when IntentRouter picked the category; only user-chosen categories train the model
+    @JsonIgnore
+    @Column(name = "category_inferred", columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private boolean categoryInferred;
+
     private String feedback; // 'positive' or 'negative'
 
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp;
 
+    @Embedded
+    @JsonIgnore
+    private TurnMetrics metrics;
+
     public enum Role {
         USER,
         ASSISTANT
@@ -0,0 +1,25 @@
+package com.campusconnect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stats_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsRollup {
+
+    @Id
+    private String name;
+
+    @Column(name = "stat_value", nullable = false)
+    private Long value;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
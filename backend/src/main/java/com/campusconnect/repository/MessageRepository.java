@@ -1,13 +1,22 @@
 package com.campusconnect.repository;
 
+import com.campusconnect.dto.MessageDTO;
+import com.campusconnect.dto.MessageExportRow;
 import com.campusconnect.model.ChatSession;
 import com.campusconnect.model.Message;
+import com.campusconnect.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
@@ -16,9 +25,73 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     
     Long countBySessionAndRole(ChatSession session, Message.Role role);
     
+    // Message windows within one conversation, all served by idx_messages_session_time
+    @Query("SELECT new com.campusconnect.dto.MessageDTO(m.id, m.role, m.content, m.category, m.feedback, m.timestamp) " +
+           "FROM Message m WHERE m.session.id = :sessionId ORDER BY m.timestamp DESC, m.id DESC")
+    List<MessageDTO> findNewestInSession(Long sessionId, Limit limit);
+    
+    @Query("SELECT new com.campusconnect.dto.MessageDTO(m.id, m.role, m.content, m.category, m.feedback, m.timestamp) " +
+           "FROM Message m WHERE m.session.id = :sessionId " +
+           "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<MessageDTO> findInSessionBefore(Long sessionId, LocalDateTime timestamp, Long id, Limit limit);
+    
+    @Query("SELECT new com.campusconnect.dto.MessageDTO(m.id, m.role, m.content, m.category, m.feedback, m.timestamp) " +
+           "FROM Message m WHERE m.session.id = :sessionId " +
+           "AND (m.timestamp > :timestamp OR (m.timestamp = :timestamp AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<MessageDTO> findInSessionAfter(Long sessionId, LocalDateTime timestamp, Long id, Limit limit);
+    
+    @Query("SELECT m.timestamp FROM Message m WHERE m.id = :id AND m.session.id = :sessionId")
+    Optional<LocalDateTime> findTimestampInSession(Long id, Long sessionId);
+    
     @Query("SELECT COUNT(m) FROM Message m WHERE m.timestamp >= :startDate")
     Long countMessagesSince(LocalDateTime startDate);
     
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.timestamp >= :start AND m.timestamp < :end")
+    long countMessagesBetween(LocalDateTime start, LocalDateTime end);
+    
     @Query("SELECT m.category, COUNT(m) FROM Message m WHERE m.category IS NOT NULL GROUP BY m.category")
     List<Object[]> countByCategory();
+    
+    @Query("SELECT MIN(m.timestamp) FROM Message m")
+    Optional<LocalDateTime> findEarliestTimestamp();
+    
+    @Query(value = "SELECT DATE_FORMAT(m.timestamp, '%Y-%m-%d %H:00:00'), COALESCE(m.category, ''), m.role, " +
+                   "COALESCE(m.feedback, ''), COUNT(*) FROM messages m " +
+                   "WHERE m.timestamp >= :start AND m.timestamp < :end " +
+                   "GROUP BY 1, 2, 3, 4", nativeQuery = true)
+    List<Object[]> countByHourAndDimensions(LocalDateTime start, LocalDateTime end);
+    
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result set
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("SELECT new com.campusconnect.dto.MessageExportRow(s.id, m.role, m.content, m.timestamp) " +
+           "FROM Message m JOIN m.session s WHERE s.user = :user " +
+           "ORDER BY s.updatedAt DESC, s.id DESC, m.timestamp ASC, m.id ASC")
+    Stream<MessageExportRow> streamExportRowsByUser(User user);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("SELECT new com.campusconnect.dto.MessageExportRow(m.session.id, m.role, m.content, m.timestamp) " +
+           "FROM Message m WHERE m.session = :session ORDER BY m.timestamp ASC, m.id ASC")
+    Stream<MessageExportRow> streamExportRowsBySession(ChatSession session);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("SELECT m.id, s.id, m.role, m.content, m.timestamp FROM Message m JOIN m.session s " +
+           "WHERE s.user.id = :userId ORDER BY m.id ASC")
+    Stream<Object[]> streamSearchRowsByUserId(Long userId);
+    
+    @Query("SELECT m.id, m.content, s.title FROM Message m JOIN m.session s WHERE m.id IN :ids")
+    List<Object[]> findSearchSnippets(Collection<Long> ids);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("SELECT m.content, m.category, m.timestamp, s.user.id FROM Message m JOIN m.session s " +
+           "WHERE m.role = :role AND m.timestamp >= :since ORDER BY m.id ASC")
+    Stream<Object[]> streamContentByRoleSince(Message.Role role, LocalDateTime since);
+    
+    // Training rows for IntentRouter: user messages whose category the user picked
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("SELECT m.content, m.category FROM Message m " +
+           "WHERE m.role = :role AND m.category IS NOT NULL AND m.categoryInferred = false " +
+           "AND m.timestamp >= :since ORDER BY m.id ASC")
+    Stream<Object[]> streamChosenCategoryContentByRoleSince(Message.Role role, LocalDateTime since);
 }
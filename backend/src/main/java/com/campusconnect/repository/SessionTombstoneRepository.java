@@ -0,0 +1,21 @@
+package com.campusconnect.repository;
+
+import com.campusconnect.model.SessionTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SessionTombstoneRepository extends JpaRepository<SessionTombstone, Long> {
+
+    @Query("SELECT t.sessionId FROM SessionTombstone t WHERE t.userId = :userId AND t.version > :version")
+    List<Long> findSessionIdsDeletedAfter(Long userId, long version);
+
+    @Modifying
+    @Query("DELETE FROM SessionTombstone t WHERE t.deletedAt < :cutoff")
+    int purgeDeletedBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,9 @@
+package com.campusconnect.repository;
+
+import com.campusconnect.model.StatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, String> {
+}
@@ -0,0 +1,30 @@
+package com.campusconnect.repository;
+
+import com.campusconnect.model.TokenUsage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TokenUsageRepository extends JpaRepository<TokenUsage, Long> {
+    
+    List<TokenUsage> findByUsageDateGreaterThanEqual(LocalDate from);
+    
+    @Modifying
+    @Query(value = "INSERT INTO token_usage (user_id, usage_date, prompt_tokens, completion_tokens, requests) " +
+                   "VALUES (:userId, :usageDate, :promptTokens, :completionTokens, :requests) " +
+                   "ON DUPLICATE KEY UPDATE prompt_tokens = prompt_tokens + :promptTokens, " +
+                   "completion_tokens = completion_tokens + :completionTokens, requests = requests + :requests", nativeQuery = true)
+    int addUsage(Long userId, LocalDate usageDate, long promptTokens, long completionTokens, long requests);
+    
+    @Query("SELECT t.userId, u.name, u.email, u.role, SUM(t.promptTokens), SUM(t.completionTokens), SUM(t.requests) " +
+           "FROM TokenUsage t, User u WHERE u.id = t.userId AND t.usageDate >= :from AND t.usageDate <= :to " +
+           "GROUP BY t.userId, u.name, u.email, u.role " +
+           "ORDER BY SUM(t.promptTokens) + SUM(t.completionTokens) DESC")
+    List<Object[]> findTopConsumers(LocalDate from, LocalDate to, Limit limit);
+}
@@ -1,11 +1,15 @@
 package com.campusconnect.repository;
 
 import com.campusconnect.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,4 +24,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
     );
     
     Long countByActive(Boolean active);
+    
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    @Query("SELECT u FROM User u WHERE u.id > :id " +
+           "AND (LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "ORDER BY u.id ASC")
+    List<User> searchByIdGreaterThan(Long id, String search, Limit limit);
+    
+    long countByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
+    
+    @Query("SELECT u.id, u.name, u.email FROM User u WHERE u.id > :id ORDER BY u.id ASC")
+    List<Object[]> findSearchFieldsAfter(Long id, Limit limit);
+    
+    // The row lock taken here orders a user's session changes until the transaction commits
+    @Modifying
+    @Query(value = "UPDATE users SET session_version = session_version + 1 WHERE id = :id", nativeQuery = true)
+    int incrementSessionVersion(Long id);
+    
+    @Query(value = "SELECT session_version FROM users WHERE id = :id", nativeQuery = true)
+    long findSessionVersion(Long id);
+    
+    @Query("SELECT u.id, u.sessionVersion FROM User u WHERE u.email = :email")
+    List<Object[]> findSessionVersionByEmail(String email);
 }
@@ -0,0 +1,311 @@
+package com.campusconnect.service;
+
+import com.campusconnect.event.FeedbackChangedEvent;
+import com.campusconnect.event.MessageSavedEvent;
+import com.campusconnect.model.AnalyticsBucket.Granularity;
+import com.campusconnect.model.StatsRollup;
+import com.campusconnect.repository.AnalyticsBucketRepository;
+import com.campusconnect.repository.MessageRepository;
+import com.campusconnect.repository.StatsRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Query analytics answered from hourly and daily buckets per category, role and feedback.
+ * Saved messages and feedback changes are counted in memory and upserted into
+ * {@code analytics_buckets} on a schedule; history written before the service was running is
+ * folded in by a backfill from the persisted watermark up to startup.
+ * Buckets record what was asked, so deleting a conversation does not remove its queries.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsService {
+
+    private static final String WATERMARK = "analytics.watermark";
+    private static final String NONE = "";
+    private static final int MAX_CATEGORY_LENGTH = 100;
+    private static final Duration HOURLY_SERIES_LIMIT = Duration.ofHours(48);
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final AnalyticsBucketRepository analyticsBucketRepository;
+    private final MessageRepository messageRepository;
+    private final StatsRollupRepository statsRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Writers share the read lock; flush takes the write lock only to swap in an empty map
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private Map<BucketKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private LocalDateTime liveFrom;
+    private volatile boolean backfilled;
+
+    @PostConstruct
+    void init() {
+        // Messages from here on are counted by the listeners; anything older belongs to the backfill
+        liveFrom = LocalDateTime.now();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        LocalDateTime from = statsRollupRepository.findById(WATERMARK)
+                .map(rollup -> LocalDateTime.ofEpochSecond(rollup.getValue(), 0, ZoneOffset.UTC))
+                .or(messageRepository::findEarliestTimestamp)
+                .orElse(liveFrom);
+
+        long folded = 0;
+        LocalDateTime dayStart = from;
+        while (dayStart.isBefore(liveFrom)) {
+            LocalDateTime dayEnd = dayStart.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            LocalDateTime end = dayEnd.isBefore(liveFrom) ? dayEnd : liveFrom;
+            folded += foldHistory(dayStart, end);
+            dayStart = end;
+        }
+        saveWatermark(liveFrom);
+        backfilled = true;
+
+        if (folded > 0) {
+            log.info("Backfilled {} messages into analytics buckets since {}", folded, from);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSaved(MessageSavedEvent event) {
+        if (event.timestamp() != null && event.timestamp().isBefore(liveFrom)) {
+            return;
+        }
+        LocalDateTime timestamp = event.timestamp() != null ? event.timestamp() : LocalDateTime.now();
+        record(timestamp, event.category(), event.role().name(), null, 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedbackChanged(FeedbackChangedEvent event) {
+        record(event.timestamp(), event.category(), event.role().name(), event.previousFeedback(), -1);
+        record(event.timestamp(), event.category(), event.role().name(), event.feedback(), 1);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.flush.ms:10000}", initialDelayString = "${analytics.flush.ms:10000}")
+    public void flush() {
+        if (!backfilled) {
+            // Live counts must not be persisted ahead of the watermark the backfill is about to write
+            return;
+        }
+
+        Map<BucketKey, LongAdder> batch;
+        LocalDateTime drainedAt;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+            drainedAt = LocalDateTime.now();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batch.forEach((key, delta) -> upsert(key, delta.sum()));
+                saveWatermark(drainedAt);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Analytics flush failed, retrying {} buckets next time: {}", batch.size(), e.getMessage());
+            batch.forEach((key, delta) -> add(key, delta.sum()));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush analytics buckets on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getQueryAnalytics(String startDate, String endDate) {
+        LocalDateTime start = startDate != null && !startDate.isBlank()
+                ? parseBound(startDate, false).truncatedTo(ChronoUnit.HOURS)
+                : LocalDate.EPOCH.atStartOfDay();
+        LocalDateTime end = endDate != null && !endDate.isBlank()
+                ? ceilToHour(parseBound(endDate, true))
+                : LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        if (!start.isBefore(end)) {
+            throw new RuntimeException("startDate must be before endDate");
+        }
+
+        // Whole days come from daily buckets, the partial days at either edge from hourly ones
+        LocalDateTime firstDay = start.equals(start.truncatedTo(ChronoUnit.DAYS)) ? start : start.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime lastDay = end.truncatedTo(ChronoUnit.DAYS);
+        List<Object[]> rows = new ArrayList<>();
+        if (firstDay.isBefore(lastDay)) {
+            rows.addAll(analyticsBucketRepository.sumByDimensions(Granularity.HOUR, start, firstDay));
+            rows.addAll(analyticsBucketRepository.sumByDimensions(Granularity.DAY, firstDay, lastDay));
+            rows.addAll(analyticsBucketRepository.sumByDimensions(Granularity.HOUR, lastDay, end));
+        } else {
+            rows.addAll(analyticsBucketRepository.sumByDimensions(Granularity.HOUR, start, end));
+        }
+
+        long total = 0;
+        Map<String, Long> byCategory = new TreeMap<>();
+        Map<String, Long> byRole = new TreeMap<>();
+        Map<String, Long> byFeedback = new TreeMap<>();
+        for (Object[] row : rows) {
+            long count = ((Number) row[3]).longValue();
+            total += count;
+            if (!NONE.equals(row[0])) {
+                byCategory.merge((String) row[0], count, Long::sum);
+            }
+            byRole.merge((String) row[1], count, Long::sum);
+            if (!NONE.equals(row[2])) {
+                byFeedback.merge((String) row[2], count, Long::sum);
+            }
+        }
+
+        List<Object[]> categoryCounts = byCategory.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .toList();
+
+        boolean hourly = Duration.between(start, end).compareTo(HOURLY_SERIES_LIMIT) <= 0;
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("startDate", start);
+        analytics.put("endDate", end);
+        analytics.put("totalQueries", total);
+        analytics.put("categoryCounts", categoryCounts);
+        analytics.put("roleCounts", byRole);
+        analytics.put("feedbackCounts", byFeedback);
+        analytics.put("granularity", hourly ? "hour" : "day");
+        analytics.put("series", hourly ? hourlySeries(start, end) : dailySeries(start, end, firstDay, lastDay));
+        return analytics;
+    }
+
+    private List<Map<String, Object>> hourlySeries(LocalDateTime start, LocalDateTime end) {
+        return toSeries(new TreeMap<>(toCounts(analyticsBucketRepository.sumByBucket(Granularity.HOUR, start, end), false)));
+    }
+
+    private List<Map<String, Object>> dailySeries(LocalDateTime start, LocalDateTime end, LocalDateTime firstDay, LocalDateTime lastDay) {
+        Map<LocalDateTime, Long> counts = new TreeMap<>();
+        if (firstDay.isBefore(lastDay)) {
+            toCounts(analyticsBucketRepository.sumByBucket(Granularity.HOUR, start, firstDay), true).forEach((day, count) -> counts.merge(day, count, Long::sum));
+            toCounts(analyticsBucketRepository.sumByBucket(Granularity.DAY, firstDay, lastDay), false).forEach((day, count) -> counts.merge(day, count, Long::sum));
+            toCounts(analyticsBucketRepository.sumByBucket(Granularity.HOUR, lastDay, end), true).forEach((day, count) -> counts.merge(day, count, Long::sum));
+        } else {
+            counts.putAll(toCounts(analyticsBucketRepository.sumByBucket(Granularity.HOUR, start, end), true));
+        }
+        return toSeries(counts);
+    }
+
+    private Map<LocalDateTime, Long> toCounts(List<Object[]> rows, boolean toDays) {
+        Map<LocalDateTime, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            LocalDateTime bucket = (LocalDateTime) row[0];
+            counts.merge(toDays ? bucket.truncatedTo(ChronoUnit.DAYS) : bucket, ((Number) row[1]).longValue(), Long::sum);
+        }
+        return counts;
+    }
+
+    private List<Map<String, Object>> toSeries(Map<LocalDateTime, Long> counts) {
+        List<Map<String, Object>> series = new ArrayList<>();
+        counts.forEach((bucket, count) -> {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("bucket", bucket);
+            point.put("count", count);
+            series.add(point);
+        });
+        return series;
+    }
+
+    private long foldHistory(LocalDateTime start, LocalDateTime end) {
+        return transactionTemplate.execute(status -> {
+            long folded = 0;
+            for (Object[] row : messageRepository.countByHourAndDimensions(start, end)) {
+                LocalDateTime hour = LocalDateTime.parse((String) row[0], BUCKET_FORMAT);
+                long count = ((Number) row[4]).longValue();
+                BucketKey key = BucketKey.of(hour, (String) row[1], (String) row[2], (String) row[3]);
+                upsert(key, count);
+                folded += count;
+            }
+            return folded;
+        });
+    }
+
+    private void record(LocalDateTime timestamp, String category, String role, String feedback, long delta) {
+        add(BucketKey.of(timestamp.truncatedTo(ChronoUnit.HOURS), category, role, feedback), delta);
+    }
+
+    private void add(BucketKey key, long delta) {
+        pendingLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    private void upsert(BucketKey key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        analyticsBucketRepository.addToBucket(Granularity.HOUR.name(), key.hour(), key.category(), key.role(), key.feedback(), delta);
+        analyticsBucketRepository.addToBucket(Granularity.DAY.name(), key.hour().truncatedTo(ChronoUnit.DAYS), key.category(), key.role(), key.feedback(), delta);
+    }
+
+    private void saveWatermark(LocalDateTime watermark) {
+        statsRollupRepository.save(new StatsRollup(WATERMARK, watermark.toEpochSecond(ZoneOffset.UTC), LocalDateTime.now()));
+    }
+
+    private LocalDateTime parseBound(String value, boolean end) {
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                // A bare end date includes that whole day
+                return end ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid date: " + value);
+        }
+    }
+
+    private static LocalDateTime ceilToHour(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+
+    private record BucketKey(LocalDateTime hour, String category, String role, String feedback) {
+
+        static BucketKey of(LocalDateTime hour, String category, String role, String feedback) {
+            String normalizedCategory = category == null ? NONE
+                    : category.length() > MAX_CATEGORY_LENGTH ? category.substring(0, MAX_CATEGORY_LENGTH) : category;
+            return new BucketKey(hour, normalizedCategory, role, feedback == null ? NONE : feedback);
+        }
+    }
+}
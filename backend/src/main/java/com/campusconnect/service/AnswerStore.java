@@ -0,0 +1,595 @@
+package com.campusconnect.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent answer store in memory-mapped, append-only segment files, so cached answers
+ * survive restarts without living on the Java heap. Only a primitive fingerprint-to-location
+ * table is kept in heap. Every write is a checksummed record appended to the active segment;
+ * on startup the segments are replayed and a torn or corrupt tail is discarded. Sealed
+ * segments that are mostly superseded are compacted, and the oldest segments are dropped
+ * once the store exceeds its size cap.
+ */
+@Service
+@Slf4j
+public class AnswerStore {
+
+    private static final int MAGIC = 0x41535431;
+    private static final int HEADER = 12;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    // fingerprint, expiresAt, answerHash, type
+    private static final int FIXED_BODY = 8 + 8 + 8 + 1;
+    private static final int ANSWER_HASH_OFFSET = HEADER + 16;
+    private static final String SEGMENT_PREFIX = "answers-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Value("${answer-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${answer-store.dir:${ANSWER_STORE_DIR:/data/answers}}")
+    private String dir;
+
+    @Value("${answer-store.segment.mb:32}")
+    private int segmentMb;
+
+    @Value("${answer-store.max.mb:512}")
+    private int maxMb;
+
+    @Value("${answer-store.compact.live-ratio:0.5}")
+    private double compactLiveRatio;
+
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final LocationTable index = new LocationTable(1024);
+    private Path directory;
+    private int segmentSize;
+    private Segment active;
+    private boolean dirty;
+
+    public record StoredAnswer(long fingerprint, String category, String question, String answer, long expiresAt) {
+    }
+
+    @PostConstruct
+    synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        segmentSize = (int) Math.min((long) segmentMb * 1024 * 1024, Integer.MAX_VALUE - 8);
+        try {
+            directory = Files.createDirectories(Paths.get(dir));
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> segmentId(path) >= 0).sorted().toList();
+            }
+            for (Path file : files) {
+                Segment segment = Segment.open(segmentId(file), file, segmentSize);
+                segments.put(segment.id, segment);
+                recover(segment);
+            }
+            active = segments.isEmpty() ? roll() : segments.lastEntry().getValue();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Answer store disabled, could not open {}: {}", dir, e.getMessage());
+            closeSegments();
+            enabled = false;
+            return;
+        }
+        log.info("Answer store opened: {} answers in {} segments in {} ms",
+                index.size(), segments.size(), System.currentTimeMillis() - started);
+    }
+
+    public synchronized void put(long fingerprint, String category, String question, String answer, long expiresAt) {
+        if (!enabled) {
+            return;
+        }
+        byte[] categoryBytes = category.getBytes(StandardCharsets.UTF_8);
+        byte[] questionBytes = question.getBytes(StandardCharsets.UTF_8);
+        byte[] answerBytes = answer.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(FIXED_BODY + 12 + categoryBytes.length + questionBytes.length + answerBytes.length);
+        body.putLong(fingerprint).putLong(expiresAt).putLong(answerHash(answer)).put(PUT);
+        body.putInt(categoryBytes.length).put(categoryBytes);
+        body.putInt(questionBytes.length).put(questionBytes);
+        body.putInt(answerBytes.length).put(answerBytes);
+
+        long location = append(body.array());
+        if (location >= 0) {
+            supersede(index.put(fingerprint, location));
+            segment(location).liveBytes += HEADER + body.capacity();
+        }
+    }
+
+    public synchronized Optional<StoredAnswer> get(long fingerprint) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long location = index.get(fingerprint);
+        if (location < 0) {
+            return Optional.empty();
+        }
+        StoredAnswer answer = read(location);
+        return answer.expiresAt() >= System.currentTimeMillis() ? Optional.of(answer) : Optional.empty();
+    }
+
+    public synchronized void remove(long fingerprint) {
+        if (enabled && index.get(fingerprint) >= 0) {
+            appendDelete(fingerprint);
+            supersede(index.remove(fingerprint));
+        }
+    }
+
+    /**
+     * Removes every stored answer with exactly this text. Compares a hash kept in the record
+     * header first, so only candidates are decoded.
+     */
+    public synchronized int removeByAnswer(String answer) {
+        if (!enabled) {
+            return 0;
+        }
+        long hash = answerHash(answer);
+        int removed = 0;
+        for (long location : index.values()) {
+            Segment segment = segment(location);
+            if (segment.buffer.getLong(offset(location) + ANSWER_HASH_OFFSET) == hash) {
+                StoredAnswer stored = read(location);
+                if (stored.answer().equals(answer)) {
+                    remove(stored.fingerprint());
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Replays up to {@code limit} unexpired answers, oldest first, so the most recently
+     * written ones come last.
+     */
+    public synchronized void forEachRecent(int limit, Consumer<StoredAnswer> consumer) {
+        if (!enabled) {
+            return;
+        }
+        // Locations grow with write order: segment id in the high bits, offset in the low bits
+        long[] locations = index.values();
+        Arrays.sort(locations);
+        long now = System.currentTimeMillis();
+        for (int i = Math.max(0, locations.length - limit); i < locations.length; i++) {
+            StoredAnswer answer = read(locations[i]);
+            if (answer.expiresAt() >= now) {
+                consumer.accept(answer);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        if (!enabled) {
+            return;
+        }
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            drop(segment);
+        }
+        index.clear();
+        active = roll();
+    }
+
+    @Scheduled(fixedDelayString = "${answer-store.maintenance.ms:60000}", initialDelayString = "${answer-store.maintenance.ms:60000}")
+    public synchronized void maintain() {
+        if (!enabled) {
+            return;
+        }
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment != active && segment.writePos > 0 && segment.liveBytes < segment.writePos * compactLiveRatio) {
+                compact(segment);
+            }
+        }
+
+        // Size cap: the oldest segment goes first, taking whatever it still holds with it
+        long maxBytes = (long) maxMb * 1024 * 1024;
+        while (segments.size() > 1 && (long) segments.size() * segmentSize > maxBytes) {
+            Segment oldest = segments.firstEntry().getValue();
+            index.removeIf(location -> segmentId(location) == oldest.id);
+            drop(oldest);
+        }
+
+        if (dirty) {
+            active.buffer.force();
+            dirty = false;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        segments.values().forEach(segment -> segment.buffer.force());
+        closeSegments();
+        enabled = false;
+    }
+
+    private void recover(Segment segment) {
+        long now = System.currentTimeMillis();
+        int pos = 0;
+        while (true) {
+            int length = validRecordLength(segment, pos);
+            if (length < 0) {
+                break;
+            }
+            long location = location(segment.id, pos);
+            ByteBuffer body = segment.buffer.slice(pos + HEADER, length - HEADER);
+            long fingerprint = body.getLong(0);
+            long expiresAt = body.getLong(8);
+            byte type = body.get(24);
+            if (type == PUT && expiresAt >= now) {
+                supersede(index.put(fingerprint, location));
+                segment.liveBytes += length;
+            } else {
+                supersede(index.remove(fingerprint));
+            }
+            pos += length;
+        }
+        if (pos + 4 <= segment.capacity && segment.buffer.getInt(pos) != 0) {
+            log.warn("Answer store segment {} has a corrupt tail at {}, discarding it", segment.path.getFileName(), pos);
+            segment.buffer.putInt(pos, 0);
+        }
+        segment.writePos = pos;
+    }
+
+    // Full record length, or -1 where the log ends or the record is torn or corrupt
+    private static int validRecordLength(Segment segment, int pos) {
+        if (pos + HEADER > segment.capacity || segment.buffer.getInt(pos) != MAGIC) {
+            return -1;
+        }
+        int bodyLength = segment.buffer.getInt(pos + 4);
+        if (bodyLength < FIXED_BODY || bodyLength > segment.capacity - pos - HEADER) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(segment.buffer.slice(pos + HEADER, bodyLength));
+        return (int) crc.getValue() == segment.buffer.getInt(pos + 8) ? HEADER + bodyLength : -1;
+    }
+
+    private void compact(Segment segment) {
+        boolean olderSegments = segments.firstKey() < segment.id;
+        long now = System.currentTimeMillis();
+        int pos = 0;
+        int moved = 0;
+        while (true) {
+            int length = validRecordLength(segment, pos);
+            if (length < 0) {
+                break;
+            }
+            long location = location(segment.id, pos);
+            byte[] body = new byte[length - HEADER];
+            segment.buffer.get(pos + HEADER, body);
+            long fingerprint = ByteBuffer.wrap(body).getLong(0);
+            long expiresAt = ByteBuffer.wrap(body).getLong(8);
+            byte type = body[24];
+
+            if (type == PUT && index.get(fingerprint) == location && expiresAt < now) {
+                index.remove(fingerprint);
+            } else if (type == PUT && index.get(fingerprint) == location) {
+                long copied = append(body);
+                if (copied >= 0) {
+                    index.put(fingerprint, copied);
+                    segment(copied).liveBytes += length;
+                    moved++;
+                } else {
+                    index.remove(fingerprint);
+                }
+            } else if (type == DELETE && olderSegments && index.get(fingerprint) < 0) {
+                // Still needed to hide a PUT in an older segment after a restart
+                append(body);
+            }
+            pos += length;
+        }
+        drop(segment);
+        log.debug("Compacted answer store segment {}, moved {} live answers", segment.id, moved);
+    }
+
+    private void appendDelete(long fingerprint) {
+        ByteBuffer body = ByteBuffer.allocate(FIXED_BODY);
+        body.putLong(fingerprint).putLong(0L).putLong(0L).put(DELETE);
+        append(body.array());
+    }
+
+    private long append(byte[] body) {
+        int length = HEADER + body.length;
+        if (length + 4 > segmentSize) {
+            log.warn("Answer of {} bytes does not fit in a store segment, not persisting it", body.length);
+            return -1;
+        }
+        if (active.writePos + length + 4 > active.capacity) {
+            active.buffer.force();
+            active = roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        int pos = active.writePos;
+        MappedByteBuffer buffer = active.buffer;
+        buffer.put(pos + HEADER, body);
+        buffer.putInt(pos + 4, body.length);
+        buffer.putInt(pos + 8, (int) crc.getValue());
+        // The next slot is zeroed before the magic makes this record visible to recovery
+        buffer.putInt(pos + length, 0);
+        buffer.putInt(pos, MAGIC);
+        active.writePos = pos + length;
+        dirty = true;
+        return location(active.id, pos);
+    }
+
+    private StoredAnswer read(long location) {
+        Segment segment = segment(location);
+        int pos = offset(location);
+        ByteBuffer body = segment.buffer.slice(pos + HEADER, segment.buffer.getInt(pos + 4));
+        long fingerprint = body.getLong();
+        long expiresAt = body.getLong();
+        body.getLong();
+        body.get();
+        return new StoredAnswer(fingerprint, readString(body), readString(body), readString(body), expiresAt);
+    }
+
+    private static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void supersede(long previous) {
+        if (previous >= 0) {
+            Segment segment = segments.get(segmentId(previous));
+            if (segment != null) {
+                segment.liveBytes -= segment.buffer.getInt(offset(previous) + 4) + HEADER;
+            }
+        }
+    }
+
+    private Segment roll() {
+        int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        Path path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        try {
+            Segment segment = Segment.open(id, path, segmentSize);
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drop(Segment segment) {
+        segments.remove(segment.id);
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Could not delete answer store segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private void closeSegments() {
+        segments.values().forEach(Segment::close);
+        segments.clear();
+    }
+
+    private Segment segment(long location) {
+        return segments.get(segmentId(location));
+    }
+
+    private static long location(int segmentId, int offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    private static int segmentId(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // FNV-1a over the UTF-16 code units
+    private static long answerHash(String answer) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < answer.length(); i++) {
+            hash = (hash ^ answer.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static final class Segment {
+
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int writePos;
+        private long liveBytes;
+
+        private Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment open(int id, Path path, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                // A segment keeps the size it was created with, even if the setting changed since
+                long length = Math.max(channel.size(), size);
+                return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            // The mapping itself is released when the buffer is collected
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Open-addressing map from fingerprint to location on primitive arrays, so the index costs
+     * two longs per answer and no objects. Fingerprint 0 marks an empty slot; -1 means absent.
+     */
+    private static final class LocationTable {
+
+        private long[] keys;
+        private long[] values;
+        private int size;
+
+        LocationTable(int capacity) {
+            keys = new long[Integer.highestOneBit(Math.max(16, capacity) - 1) << 1];
+            values = new long[keys.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        long put(long key, long value) {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    long previous = values[i];
+                    values[i] = value;
+                    return previous;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            return -1;
+        }
+
+        long remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            long previous = values[i];
+
+            // Backward-shift deletion keeps probe sequences intact without tombstones
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0;
+            values[gap] = 0;
+            size--;
+            return previous;
+        }
+
+        void removeIf(LongPredicate valueMatches) {
+            List<Long> matching = new ArrayList<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0 && valueMatches.test(values[i])) {
+                    matching.add(keys[i]);
+                }
+            }
+            matching.forEach(this::remove);
+        }
+
+        long[] values() {
+            long[] result = new long[size];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    result[n++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, 0);
+            size = 0;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[keys.length];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) (key ^ (key >>> 32)) * 0x9E3779B9 & mask;
+        }
+    }
+}
@@ -2,40 +2,243 @@ package com.campusconnect.service;
 
 import com.campusconnect.dto.ChatRequest;
 import com.campusconnect.dto.ChatResponse;
+import com.campusconnect.dto.ChatSessionSummary;
+import com.campusconnect.dto.ChatStreamEvent;
+import com.campusconnect.dto.CursorPage;
+import com.campusconnect.dto.GroqCompletion;
+import com.campusconnect.dto.MessageDTO;
+import com.campusconnect.dto.MessageExportRow;
+import com.campusconnect.dto.MessageWindow;
+import com.campusconnect.event.FeedbackChangedEvent;
+import com.campusconnect.event.MessageSavedEvent;
+import com.campusconnect.event.SessionChangedEvent;
 import com.campusconnect.model.ChatSession;
 import com.campusconnect.model.Message;
+import com.campusconnect.model.TurnMetrics;
 import com.campusconnect.model.User;
 import com.campusconnect.repository.ChatSessionRepository;
 import com.campusconnect.repository.MessageRepository;
 import com.campusconnect.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatService {
 
+    public static final List<String> CATEGORIES = List.of(
+            "Admissions",
+            "Courses",
+            "Fees",
+            "Placements",
+            "Campus Life",
+            "Faculty",
+            "Events",
+            "Facilities"
+    );
+
+    private static final int SUGGESTION_COUNT = 4;
+
     private final ChatSessionRepository chatSessionRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final GroqService groqService;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StatsService statsService;
+    private final TurnMetricsService turnMetricsService;
+    private final QuotaService quotaService;
+    private final SuggestionService suggestionService;
+    private final IntentRouter intentRouter;
+    private final AnswerCache answerCache;
 
-    @Transactional
+    /**
+     * Runs a chat turn as two short transactions around the LLM call, so no JDBC connection
+     * is held while waiting on Groq.
+     */
     public ChatResponse sendMessage(String email, ChatRequest request) {
+        GroqCompletion local = routeLocally(request);
+        ChatTurn turn = transactionTemplate.execute(status -> openTurn(email, request));
+
+        // Generate AI response
+        GroqCompletion completion = local != null ? local : groqService.generateCompletion(
+                request.getMessage(),
+                request.getCategory(),
+                turn.conversationHistory()
+        );
+
+        Message aiMessage = transactionTemplate.execute(status -> completeTurn(turn, request, completion));
+
+        return toChatResponse(turn, request, aiMessage);
+    }
+
+    /**
+     * Non-blocking chat turn: only the two short persistence steps touch a thread, and those
+     * run on the bounded JDBC scheduler. The LLM wait holds no thread at all.
+     */
+    public Mono<ChatResponse> sendMessageReactive(String email, ChatRequest request) {
+        GroqCompletion local = routeLocally(request);
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> openTurn(email, request)))
+                .subscribeOn(jdbcScheduler)
+                .flatMap(turn -> (local != null ? Mono.just(local) : groqService.generateCompletionReactive(
+                                request.getMessage(),
+                                request.getCategory(),
+                                turn.conversationHistory()
+                        ))
+                        .publishOn(jdbcScheduler)
+                        .map(completion -> {
+                            Message aiMessage = transactionTemplate.execute(status -> completeTurn(turn, request, completion));
+                            return toChatResponse(turn, request, aiMessage);
+                        }));
+    }
+
+    /**
+     * Streams the answer token by token and persists it once the upstream completes. The
+     * final event carries the saved message so clients can attach feedback to it. A stream
+     * that fails midway ends with an {@code error} event carrying the partial answer as saved;
+     * one the client cancels (a disconnect, or a WebSocket cancel frame) still saves what was
+     * streamed and is charged for it, so abandoning a reply never skips the quota.
+     */
+    public Flux<ChatStreamEvent> streamMessage(String email, ChatRequest request) {
+        GroqCompletion local = routeLocally(request);
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> openTurn(email, request)))
+                .subscribeOn(jdbcScheduler)
+                .flatMapMany(turn -> {
+                    AtomicReference<GroqCompletion> completion = new AtomicReference<>(local);
+                    // Exactly one of done, error and cancel records the turn
+                    AtomicBoolean recorded = new AtomicBoolean(false);
+
+                    Flux<ChatStreamEvent> tokens = local != null
+                            ? Flux.just(ChatStreamEvent.token(local.content()))
+                            : groqService.streamResponse(
+                                            request.getMessage(),
+                                            request.getCategory(),
+                                            turn.conversationHistory(),
+                                            completion::set
+                                    )
+                                    .map(ChatStreamEvent::token);
+
+                    Mono<ChatStreamEvent> done = Mono.fromCallable(() -> recorded.compareAndSet(false, true)
+                                    ? ChatStreamEvent.done(toChatResponse(turn, request, transactionTemplate.execute(
+                                            status -> completeTurn(turn, request, completion.get()))))
+                                    : null)
+                            .subscribeOn(jdbcScheduler);
+
+                    return tokens
+                            .concatWith(done)
+                            .onErrorResume(e -> {
+                                GroqCompletion partial = completion.get();
+                                if (partial == null || !recorded.compareAndSet(false, true)) {
+                                    return Flux.error(e);
+                                }
+                                return Mono.fromCallable(() -> ChatStreamEvent.error(toChatResponse(turn, request,
+                                                transactionTemplate.execute(status -> completeTurn(turn, request, partial)))))
+                                        .subscribeOn(jdbcScheduler);
+                            })
+                            // After the cancel has reached GroqService, so the partial answer is known
+                            .doFinally(signal -> {
+                                if (signal == SignalType.CANCEL && recorded.compareAndSet(false, true)) {
+                                    recordCancelledTurn(turn, request, completion.get());
+                                }
+                            });
+                });
+    }
+
+    /**
+     * Charges a cancelled turn at once, so the next turn's quota check already sees it, then
+     * saves the partial answer off the cancelling thread.
+     */
+    private void recordCancelledTurn(ChatTurn turn, ChatRequest request, GroqCompletion partial) {
+        if (partial == null) {
+            return;
+        }
+        quotaService.record(turn.userId(), partial.promptTokens(), partial.completionTokens());
+        if (partial.content().isEmpty()) {
+            // Nothing reached the client: there is no answer to save
+            return;
+        }
+        Mono.fromRunnable(() -> transactionTemplate.executeWithoutResult(status -> saveTurn(turn, request, partial)))
+                .subscribeOn(jdbcScheduler)
+                .subscribe(null, e -> log.warn("Could not save cancelled turn in session {}: {}", turn.sessionId(), e.getMessage()));
+    }
+
+    /**
+     * Returns the local answer for first-turn small talk and simple lookups, or for a first-turn question
+     * close to one answered before; null when the turn needs the LLM. A missing category is
+     * inferred first, so the cache, the prompt and the per-category metrics get one.
+     */
+    private GroqCompletion routeLocally(ChatRequest request) {
+        Optional<String> answer = intentRouter.answer(request.getMessage(), request.getSessionId() == null);
+        if (answer.isPresent()) {
+            return GroqCompletion.local(answer.get());
+        }
+        if (request.getCategory() == null || request.getCategory().isEmpty()) {
+            intentRouter.inferCategory(request.getMessage()).ifPresent(category -> {
+                request.setCategory(category);
+                request.setCategoryInferred(true);
+            });
+        }
+        if (request.getSessionId() == null) {
+            return answerCache.lookup(request.getCategory(), request.getMessage())
+                    .map(GroqCompletion::cached)
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    private ChatResponse toChatResponse(ChatTurn turn, ChatRequest request, Message aiMessage) {
+        return new ChatResponse(
+                aiMessage.getId(),
+                aiMessage.getContent(),
+                request.getCategory(),
+                aiMessage.getTimestamp(),
+                turn.sessionId()
+        );
+    }
+
+    private ChatTurn openTurn(String email, ChatRequest request) {
+        long startedAt = System.nanoTime();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        quotaService.checkQuota(user);
 
         // Get or create session
         ChatSession session;
@@ -52,6 +255,7 @@ public class ChatService {
             session.setCategory(request.getCategory());
             session.setTitle(generateSessionTitle(request.getMessage()));
             session = chatSessionRepository.save(session);
+            eventPublisher.publishEvent(SessionChangedEvent.of(SessionChangedEvent.Type.CREATED, session, user.getId()));
         }
 
         // Save user message
@@ -60,7 +264,9 @@ public class ChatService {
         userMessage.setRole(Message.Role.USER);
         userMessage.setContent(request.getMessage());
         userMessage.setCategory(request.getCategory());
+        userMessage.setCategoryInferred(request.isCategoryInferred());
         userMessage = messageRepository.save(userMessage);
+        eventPublisher.publishEvent(MessageSavedEvent.of(userMessage, user.getId()));
 
         // Get conversation history
         List<Message> history = messageRepository.findBySessionOrderByTimestampAsc(session);
@@ -74,52 +280,137 @@ public class ChatService {
                 })
                 .collect(Collectors.toList());
 
-        // Generate AI response
-        String aiResponseText = groqService.generateResponse(
-                request.getMessage(),
-                request.getCategory(),
-                conversationHistory
+        return new ChatTurn(session.getId(), user.getId(), conversationHistory, startedAt, elapsedMs(startedAt));
+    }
+
+    private Message completeTurn(ChatTurn turn, ChatRequest request, GroqCompletion completion) {
+        Message aiMessage = saveTurn(turn, request, completion);
+        quotaService.record(turn.userId(), completion.promptTokens(), completion.completionTokens());
+        return aiMessage;
+    }
+
+    // Everything completeTurn does except charging the quota
+    private Message saveTurn(ChatTurn turn, ChatRequest request, GroqCompletion completion) {
+        long writeStart = System.nanoTime();
+
+        // Re-read the session; the entity from the first transaction may be detached by now
+        ChatSession session = chatSessionRepository.findById(turn.sessionId())
+                .orElseThrow(() -> new RuntimeException("Session not found"));
+
+        // Update session
+        session.setLastMessage(request.getMessage());
+        session.setMessageCount(session.getMessageCount() + 2);
+        chatSessionRepository.save(session);
+
+        // The write phase covers everything up to the insert that carries the figures
+        TurnMetrics metrics = new TurnMetrics(
+                turn.dbReadMs(),
+                completion.promptBuildMs(),
+                completion.llmWaitMs(),
+                completion.firstTokenMs(),
+                elapsedMs(writeStart),
+                elapsedMs(turn.startedAt()),
+                completion.promptTokens(),
+                completion.completionTokens(),
+                completion.model(),
+                completion.outcome()
         );
 
         // Save AI response
         Message aiMessage = new Message();
         aiMessage.setSession(session);
         aiMessage.setRole(Message.Role.ASSISTANT);
-        aiMessage.setContent(aiResponseText);
+        aiMessage.setContent(completion.content());
         aiMessage.setCategory(request.getCategory());
+        aiMessage.setMetrics(metrics);
         aiMessage = messageRepository.save(aiMessage);
+        eventPublisher.publishEvent(MessageSavedEvent.of(aiMessage, turn.userId()));
+        eventPublisher.publishEvent(SessionChangedEvent.of(SessionChangedEvent.Type.UPDATED, session, turn.userId()));
 
-        // Update session
-        session.setLastMessage(request.getMessage());
-        session.setMessageCount(session.getMessageCount() + 2);
-        chatSessionRepository.save(session);
-
-        return new ChatResponse(
-                aiMessage.getId(),
-                aiResponseText,
-                request.getCategory(),
-                aiMessage.getTimestamp(),
-                session.getId()
-        );
+        turnMetricsService.record(request.getCategory(), metrics);
+        statsService.recordResponseTime(metrics.getTotalMs());
+        // Only first turns are cached: later answers depend on the conversation so far
+        if (request.getSessionId() == null && GroqCompletion.OK.equals(completion.outcome())) {
+            answerCache.put(request.getCategory(), request.getMessage(), completion.content());
+        }
+        return aiMessage;
     }
 
-    public List<ChatSession> getUserSessions(String email) {
+    public Map<String, Object> getTokenUsage(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return chatSessionRepository.findByUserOrderByUpdatedAtDesc(user);
+        return quotaService.getUsage(user);
     }
 
-    public Page<ChatSession> getChatHistory(String email, Pageable pageable) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return chatSessionRepository.findByUser(user, pageable);
+    public List<ChatSessionSummary> getUserSessions(String email) {
+        return chatSessionRepository.findSummariesByUserEmail(email);
+    }
+
+    public Page<ChatSessionSummary> getChatHistory(String email, Pageable pageable) {
+        return chatSessionRepository.findSummariesByUserEmail(email, pageable);
+    }
+
+    public CursorPage<ChatSessionSummary> getChatHistoryPage(String email, String cursor, int size, boolean includeTotal) {
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ChatSessionSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = chatSessionRepository.findSummariesByUserEmail(email, limit);
+        } else {
+            String[] keys = CursorPage.decodeCursor(cursor, 2);
+            LocalDateTime updatedAt;
+            Long id;
+            try {
+                updatedAt = LocalDateTime.parse(keys[0]);
+                id = Long.valueOf(keys[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            rows = chatSessionRepository.findSummariesByUserEmailBefore(email, updatedAt, id, limit);
+        }
+
+        Long total = includeTotal ? chatSessionRepository.countByUserEmail(email) : null;
+        return CursorPage.of(rows, pageSize,
+                summary -> CursorPage.encodeCursor(summary.getUpdatedAt(), summary.getId()), total);
+    }
+
+    /**
+     * Weak ETag for the user's session list ({@code /sessions} and {@code /history}); it
+     * changes whenever a session is created, updated or deleted.
+     */
+    public String getSessionListVersion(String email) {
+        Object[] row = chatSessionRepository.findListVersionByUserEmail(email).get(0);
+        return weakEtag("sessions", row);
+    }
+
+    /**
+     * Weak ETag for one session with its messages and their feedback, or null when the user
+     * has no such session (the full read then reports the error).
+     */
+    public String getChatSessionVersion(String email, Long sessionId) {
+        List<Object[]> rows = chatSessionRepository.findVersionByIdAndUserEmail(sessionId, email);
+        return rows.isEmpty() ? null : weakEtag("session-" + sessionId, rows.get(0));
+    }
+
+    private static String weakEtag(String prefix, Object[] parts) {
+        StringBuilder etag = new StringBuilder("W/\"").append(prefix);
+        for (Object part : parts) {
+            etag.append('-');
+            if (part instanceof LocalDateTime time) {
+                etag.append(time.toEpochSecond(ZoneOffset.UTC)).append('.').append(time.getNano() / 1000);
+            } else {
+                etag.append(part);
+            }
+        }
+        return etag.append('"').toString();
     }
 
     public ChatSession getChatSession(String email, Long sessionId) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        ChatSession session = chatSessionRepository.findById(sessionId)
+        ChatSession session = chatSessionRepository.findWithMessagesById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
         
         if (!session.getUser().getId().equals(user.getId())) {
@@ -129,6 +420,57 @@ public class ChatService {
         return session;
     }
 
+    /**
+     * Returns a window of at most {@code limit} messages: the newest ones by default, or the
+     * ones immediately older than {@code before} / newer than {@code after} (message ids).
+     */
+    public MessageWindow getMessageWindow(String email, Long sessionId, Long before, Long after, int limit) {
+        if (!chatSessionRepository.existsByIdAndUserEmail(sessionId, email)) {
+            throw new RuntimeException("Session not found");
+        }
+        if (before != null && after != null) {
+            throw new RuntimeException("Use either before or after, not both");
+        }
+
+        int windowSize = Math.max(1, Math.min(limit, 100));
+        Limit fetch = Limit.of(windowSize + 1);
+
+        List<MessageDTO> rows;
+        boolean hasOlder;
+        boolean hasNewer;
+
+        if (after != null) {
+            LocalDateTime anchor = messageRepository.findTimestampInSession(after, sessionId)
+                    .orElseThrow(() -> new RuntimeException("Invalid cursor"));
+            rows = new ArrayList<>(messageRepository.findInSessionAfter(sessionId, anchor, after, fetch));
+            hasNewer = rows.size() > windowSize;
+            if (hasNewer) {
+                rows = rows.subList(0, windowSize);
+            }
+            hasOlder = true;
+        } else {
+            if (before != null) {
+                LocalDateTime anchor = messageRepository.findTimestampInSession(before, sessionId)
+                        .orElseThrow(() -> new RuntimeException("Invalid cursor"));
+                rows = new ArrayList<>(messageRepository.findInSessionBefore(sessionId, anchor, before, fetch));
+                hasNewer = true;
+            } else {
+                rows = new ArrayList<>(messageRepository.findNewestInSession(sessionId, fetch));
+                hasNewer = false;
+            }
+            hasOlder = rows.size() > windowSize;
+            if (hasOlder) {
+                rows = rows.subList(0, windowSize);
+            }
+            // Fetched newest-first; clients render oldest-first
+            Collections.reverse(rows);
+        }
+
+        Long olderCursor = hasOlder && !rows.isEmpty() ? rows.get(0).getId() : null;
+        Long newerCursor = !rows.isEmpty() ? rows.get(rows.size() - 1).getId() : after;
+        return new MessageWindow(sessionId, rows, hasOlder, hasNewer, olderCursor, newerCursor);
+    }
+
     @Transactional
     public void deleteChatSession(String email, Long sessionId) {
         User user = userRepository.findByEmail(email)
@@ -142,18 +484,50 @@ public class ChatService {
         }
         
         chatSessionRepository.delete(session);
+        eventPublisher.publishEvent(SessionChangedEvent.of(SessionChangedEvent.Type.DELETED, session, user.getId()));
     }
 
     @Transactional
     public void submitFeedback(String email, Long messageId, String feedback) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
         
+        // Feedback drives analytics and evicts cached answers, so only the asker may give it
+        if (!message.getSession().getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Unauthorized access to message");
+        }
+        
+        String previousFeedback = message.getFeedback();
         message.setFeedback(feedback);
         messageRepository.save(message);
+        if (!Objects.equals(previousFeedback, feedback)) {
+            eventPublisher.publishEvent(FeedbackChangedEvent.of(message, previousFeedback));
+            // Moves the session's change version, which its ETag is built from
+            eventPublisher.publishEvent(SessionChangedEvent.of(SessionChangedEvent.Type.UPDATED, message.getSession(), user.getId()));
+        }
     }
 
+    /**
+     * The questions students ask most in the category lately, topped up from the built-in
+     * list while there is not enough traffic yet.
+     */
     public List<String> getSuggestedQuestions(String category) {
+        List<String> suggestions = new ArrayList<>(suggestionService.topQuestions(category, SUGGESTION_COUNT));
+        for (String fallback : defaultSuggestions(category)) {
+            if (suggestions.size() >= SUGGESTION_COUNT) {
+                break;
+            }
+            if (suggestions.stream().noneMatch(fallback::equalsIgnoreCase)) {
+                suggestions.add(fallback);
+            }
+        }
+        return suggestions;
+    }
+
+    private List<String> defaultSuggestions(String category) {
         List<String> suggestions = new ArrayList<>();
         
         if (category == null || category.isEmpty()) {
@@ -204,22 +578,20 @@ public class ChatService {
         return firstMessage;
     }
 
-    public byte[] exportChatHistory(String email, String format) {
+    /**
+     * Validates the request up front and returns a body that streams the export straight to
+     * the response, reading messages through a DB cursor so memory stays flat per export.
+     */
+    public StreamingResponseBody exportChatHistory(String email, String format) {
+        boolean pdf = isPdfFormat(format);
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<ChatSession> sessions = chatSessionRepository.findByUserOrderByUpdatedAtDesc(user);
-        
-        if ("pdf".equalsIgnoreCase(format)) {
-            return generatePdfExport(sessions, user);
-        } else if ("csv".equalsIgnoreCase(format)) {
-            return generateCsvExport(sessions, user);
-        } else {
-            throw new RuntimeException("Unsupported export format: " + format);
-        }
+
+        return out -> writeChatHistory(user, pdf, out);
     }
 
-    public byte[] exportSingleSession(String email, Long sessionId, String format) {
+    public StreamingResponseBody exportSingleSession(String email, Long sessionId, String format) {
+        boolean pdf = isPdfFormat(format);
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
@@ -230,19 +602,54 @@ public class ChatService {
             throw new RuntimeException("Unauthorized access to session");
         }
         
+        return out -> writeSingleSession(session, user, pdf, out);
+    }
+
+    public void writeChatHistory(User user, boolean pdf, OutputStream out) {
+        readOnlyTransaction().executeWithoutResult(status -> {
+            List<ChatSession> sessions = chatSessionRepository.findByUserOrderByUpdatedAtDescIdDesc(user);
+            try (Stream<MessageExportRow> rows = messageRepository.streamExportRowsByUser(user)) {
+                if (pdf) {
+                    writePdfExport(sessions, rows.iterator(), user, out);
+                } else {
+                    writeCsvExport(sessions, rows.iterator(), out);
+                }
+            }
+        });
+    }
+
+    public void writeSingleSession(ChatSession session, User user, boolean pdf, OutputStream out) {
+        readOnlyTransaction().executeWithoutResult(status -> {
+            try (Stream<MessageExportRow> rows = messageRepository.streamExportRowsBySession(session)) {
+                if (pdf) {
+                    writeSingleSessionPdfExport(session, rows.iterator(), user, out);
+                } else {
+                    writeSingleSessionCsvExport(rows.iterator(), out);
+                }
+            }
+        });
+    }
+
+    private boolean isPdfFormat(String format) {
         if ("pdf".equalsIgnoreCase(format)) {
-            return generateSingleSessionPdfExport(session, user);
+            return true;
         } else if ("csv".equalsIgnoreCase(format)) {
-            return generateSingleSessionCsvExport(session);
+            return false;
         } else {
             throw new RuntimeException("Unsupported export format: " + format);
         }
     }
 
-    private byte[] generatePdfExport(List<ChatSession> sessions, User user) {
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private void writePdfExport(List<ChatSession> sessions, Iterator<MessageExportRow> rows, User user, OutputStream out) {
         try {
-            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-            com.itextpdf.kernel.pdf.PdfWriter writer = new com.itextpdf.kernel.pdf.PdfWriter(baos);
+            com.itextpdf.kernel.pdf.PdfWriter writer = new com.itextpdf.kernel.pdf.PdfWriter(out);
+            writer.setCloseStream(false);
             com.itextpdf.kernel.pdf.PdfDocument pdf = new com.itextpdf.kernel.pdf.PdfDocument(writer);
             com.itextpdf.layout.Document document = new com.itextpdf.layout.Document(pdf);
             
@@ -264,7 +671,8 @@ public class ChatService {
                     .setFontSize(12)
                     .setMarginBottom(20));
             
-            // Add sessions
+            // Add sessions; rows arrive in the same session order, so each session's messages follow its header
+            MessageExportRow row = rows.hasNext() ? rows.next() : null;
             for (ChatSession session : sessions) {
                 document.add(new com.itextpdf.layout.element.Paragraph("Session: " + session.getTitle())
                         .setFontSize(14)
@@ -274,45 +682,52 @@ public class ChatService {
                         .setFontSize(10)
                         .setMarginBottom(10));
                 
-                List<Message> messages = messageRepository.findBySessionOrderByTimestampAsc(session);
-                for (Message message : messages) {
-                    String role = message.getRole() == Message.Role.USER ? "You" : "Assistant";
-                    document.add(new com.itextpdf.layout.element.Paragraph(role + ": " + message.getContent())
+                while (row != null && row.getSessionId().equals(session.getId())) {
+                    String role = row.getRole() == Message.Role.USER ? "You" : "Assistant";
+                    document.add(new com.itextpdf.layout.element.Paragraph(role + ": " + row.getContent())
                             .setFontSize(10)
                             .setMarginLeft(20)
                             .setMarginBottom(5));
+                    row = rows.hasNext() ? rows.next() : null;
                 }
             }
             
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             log.error("Error generating PDF export", e);
             throw new RuntimeException("Failed to generate PDF export", e);
         }
     }
 
-    private byte[] generateCsvExport(List<ChatSession> sessions, User user) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Session Title,Date,Role,Message\n");
-        
+    private void writeCsvExport(List<ChatSession> sessions, Iterator<MessageExportRow> rows, OutputStream out) {
+        Map<Long, String> titles = new HashMap<>();
         for (ChatSession session : sessions) {
-            List<Message> messages = messageRepository.findBySessionOrderByTimestampAsc(session);
-            for (Message message : messages) {
-                csv.append("\"").append(session.getTitle().replace("\"", "\"\"")).append("\",");
-                csv.append("\"").append(message.getTimestamp()).append("\",");
-                csv.append("\"").append(message.getRole()).append("\",");
-                csv.append("\"").append(message.getContent().replace("\"", "\"\"")).append("\"\n");
+            titles.put(session.getId(), session.getTitle());
+        }
+
+        try {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            csv.write("Session Title,Date,Role,Message\n");
+            csv.flush();
+            
+            while (rows.hasNext()) {
+                MessageExportRow row = rows.next();
+                String title = titles.getOrDefault(row.getSessionId(), "");
+                csv.write("\"" + title.replace("\"", "\"\"") + "\",");
+                csv.write("\"" + row.getTimestamp() + "\",");
+                csv.write("\"" + row.getRole() + "\",");
+                csv.write("\"" + row.getContent().replace("\"", "\"\"") + "\"\n");
             }
+            csv.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write CSV export", e);
         }
-        
-        return csv.toString().getBytes();
     }
 
-    private byte[] generateSingleSessionPdfExport(ChatSession session, User user) {
+    private void writeSingleSessionPdfExport(ChatSession session, Iterator<MessageExportRow> rows, User user, OutputStream out) {
         try {
-            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-            com.itextpdf.kernel.pdf.PdfWriter writer = new com.itextpdf.kernel.pdf.PdfWriter(baos);
+            com.itextpdf.kernel.pdf.PdfWriter writer = new com.itextpdf.kernel.pdf.PdfWriter(out);
+            writer.setCloseStream(false);
             com.itextpdf.kernel.pdf.PdfDocument pdf = new com.itextpdf.kernel.pdf.PdfDocument(writer);
             com.itextpdf.layout.Document document = new com.itextpdf.layout.Document(pdf);
             
@@ -343,9 +758,9 @@ public class ChatService {
                     .setMarginBottom(15));
             
             // Add messages
-            List<Message> messages = messageRepository.findBySessionOrderByTimestampAsc(session);
-            for (Message message : messages) {
-                String role = message.getRole() == Message.Role.USER ? "You" : "IARE Assistant";
+            while (rows.hasNext()) {
+                MessageExportRow row = rows.next();
+                String role = row.getRole() == Message.Role.USER ? "You" : "IARE Assistant";
                 
                 document.add(new com.itextpdf.layout.element.Paragraph(role)
                         .setFontSize(11)
@@ -353,31 +768,42 @@ public class ChatService {
                         .setMarginTop(10)
                         .setMarginBottom(3));
                         
-                document.add(new com.itextpdf.layout.element.Paragraph(message.getContent())
+                document.add(new com.itextpdf.layout.element.Paragraph(row.getContent())
                         .setFontSize(10)
                         .setMarginLeft(10)
                         .setMarginBottom(8));
             }
             
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             log.error("Error generating single session PDF export", e);
             throw new RuntimeException("Failed to generate PDF export", e);
         }
     }
 
-    private byte[] generateSingleSessionCsvExport(ChatSession session) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Timestamp,Role,Message\n");
-        
-        List<Message> messages = messageRepository.findBySessionOrderByTimestampAsc(session);
-        for (Message message : messages) {
-            csv.append("\"").append(message.getTimestamp()).append("\",");
-            csv.append("\"").append(message.getRole()).append("\",");
-            csv.append("\"").append(message.getContent().replace("\"", "\"\"")).append("\"\n");
+    private void writeSingleSessionCsvExport(Iterator<MessageExportRow> rows, OutputStream out) {
+        try {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            csv.write("Timestamp,Role,Message\n");
+            csv.flush();
+            
+            while (rows.hasNext()) {
+                MessageExportRow row = rows.next();
+                csv.write("\"" + row.getTimestamp() + "\",");
+                csv.write("\"" + row.getRole() + "\",");
+                csv.write("\"" + row.getContent().replace("\"", "\"\"") + "\"\n");
+            }
+            csv.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write CSV export", e);
         }
-        
-        return csv.toString().getBytes();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private record ChatTurn(Long sessionId, Long userId, List<Map<String, String>> conversationHistory,
+                            long startedAt, long dbReadMs) {
     }
 }
@@ -0,0 +1,267 @@
+package com.campusconnect.service;
+
+import com.campusconnect.dto.FaqItem;
+import com.campusconnect.event.FaqChangedEvent;
+import com.campusconnect.model.FAQ;
+import com.campusconnect.repository.FAQRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Public FAQ reads served from an immutable snapshot of the active FAQs, rebuilt and swapped
+ * in whole whenever an admin changes one, so browsing never queries the database. Views are
+ * counted in memory and added to {@code faq.view_count} in batches; popularity ordering uses
+ * the live counts. The snapshot and live counts are also saved by {@link SnapshotService},
+ * so a restarted instance skips the initial load.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FaqService implements SnapshotParticipant {
+
+    private final FAQRepository faqRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // faqId -> views including unflushed ones; entries follow the snapshot
+    private final Map<Long, LongAdder> views = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean restored;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!restored) {
+            reload();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFaqChanged(FaqChangedEvent event) {
+        reload();
+    }
+
+    public List<FaqItem> getFaqs(String category, boolean popular) {
+        Snapshot current = snapshot;
+        List<FAQ> faqs = category != null && !category.isEmpty()
+                ? current.byCategory().getOrDefault(category, List.of())
+                : current.all();
+
+        List<FaqItem> items = new ArrayList<>(faqs.size());
+        for (FAQ faq : faqs) {
+            items.add(toItem(faq));
+        }
+        if (popular) {
+            items.sort(Comparator.comparingLong(FaqItem::viewCount).reversed().thenComparing(FaqItem::id));
+        }
+        return items;
+    }
+
+    public List<String> getCategories() {
+        return snapshot.categories();
+    }
+
+    /**
+     * Lowercased words of the active FAQs' questions, answers and categories.
+     */
+    public Set<String> getVocabulary() {
+        return snapshot.vocabulary();
+    }
+
+    /**
+     * Returns the FAQ and counts the view.
+     */
+    public FaqItem viewFaq(Long faqId) {
+        FAQ faq = snapshot.byId().get(faqId);
+        if (faq == null) {
+            throw new RuntimeException("FAQ not found");
+        }
+
+        LongAdder total = views.get(faqId);
+        if (total != null) {
+            total.increment();
+        }
+        pendingLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(faqId, id -> new LongAdder()).increment();
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+        return toItem(faq);
+    }
+
+    @Scheduled(fixedDelayString = "${faq.views.flush.ms:30000}", initialDelayString = "${faq.views.flush.ms:30000}")
+    public synchronized void flush() {
+        Map<Long, LongAdder> batch;
+        pendingLock.writeLock().lock();
+        try {
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // One transaction per flush, rows in id order so concurrent flushes cannot deadlock
+        Map<Long, Long> deltas = new TreeMap<>();
+        batch.forEach((id, count) -> deltas.put(id, count.sum()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach(faqRepository::addViews));
+        } catch (RuntimeException e) {
+            log.warn("FAQ view flush failed, retrying {} rows next time: {}", deltas.size(), e.getMessage());
+            pendingLock.readLock().lock();
+            try {
+                deltas.forEach((id, delta) -> pending.computeIfAbsent(id, k -> new LongAdder()).add(delta));
+            } finally {
+                pendingLock.readLock().unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush FAQ views on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void reload() {
+        install(faqRepository.findByActiveOrderByViewCountDesc(true));
+    }
+
+    private synchronized void install(List<FAQ> active) {
+        Map<Long, FAQ> byId = new LinkedHashMap<>();
+        Map<String, List<FAQ>> byCategory = new TreeMap<>();
+        Set<String> vocabulary = new HashSet<>();
+        for (FAQ faq : active) {
+            for (String text : new String[] {faq.getQuestion(), faq.getAnswer(), faq.getCategory()}) {
+                if (text != null) {
+                    for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                        if (!word.isEmpty()) {
+                            vocabulary.add(word);
+                        }
+                    }
+                }
+            }
+            byId.put(faq.getId(), faq);
+            byCategory.computeIfAbsent(faq.getCategory(), category -> new ArrayList<>()).add(faq);
+            // Existing counters already include views the database has not seen yet
+            views.computeIfAbsent(faq.getId(), id -> {
+                LongAdder counter = new LongAdder();
+                counter.add(faq.getViewCount() != null ? faq.getViewCount() : 0);
+                return counter;
+            });
+        }
+        views.keySet().retainAll(byId.keySet());
+
+        Map<String, List<FAQ>> frozen = new LinkedHashMap<>();
+        byCategory.forEach((category, faqs) -> frozen.put(category, List.copyOf(faqs)));
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(frozen), List.copyOf(active), List.copyOf(frozen.keySet()),
+                Set.copyOf(vocabulary));
+        log.debug("FAQ snapshot rebuilt: {} active FAQs in {} categories", active.size(), frozen.size());
+    }
+
+    @Override
+    public String snapshotName() {
+        return "faq";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return 1;
+    }
+
+    @Override
+    public synchronized void writeSnapshot(DataOutput out) throws IOException {
+        List<FAQ> all = snapshot.all();
+        out.writeInt(all.size());
+        for (FAQ faq : all) {
+            out.writeLong(faq.getId());
+            SnapshotParticipant.writeString(out, faq.getQuestion());
+            SnapshotParticipant.writeString(out, faq.getAnswer());
+            SnapshotParticipant.writeString(out, faq.getCategory());
+            LongAdder total = views.get(faq.getId());
+            out.writeLong(total != null ? total.sum() : 0);
+            writeTime(out, faq.getCreatedAt());
+            writeTime(out, faq.getUpdatedAt());
+        }
+    }
+
+    @Override
+    public synchronized void restoreSnapshot(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<FAQ> faqs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FAQ faq = new FAQ();
+            faq.setId(in.readLong());
+            faq.setQuestion(SnapshotParticipant.readString(in));
+            faq.setAnswer(SnapshotParticipant.readString(in));
+            faq.setCategory(SnapshotParticipant.readString(in));
+            faq.setViewCount((int) Math.min(in.readLong(), Integer.MAX_VALUE));
+            faq.setActive(true);
+            faq.setCreatedAt(readTime(in));
+            faq.setUpdatedAt(readTime(in));
+            faqs.add(faq);
+        }
+        install(faqs);
+        restored = true;
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeLong(time != null ? time.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        return seconds != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC) : null;
+    }
+
+    private FaqItem toItem(FAQ faq) {
+        LongAdder total = views.get(faq.getId());
+        long viewCount = total != null ? total.sum() : (faq.getViewCount() != null ? faq.getViewCount() : 0);
+        return new FaqItem(faq.getId(), faq.getQuestion(), faq.getAnswer(), faq.getCategory(), viewCount, faq.getUpdatedAt());
+    }
+
+    /**
+     * Active FAQs at one point in time. The entities are detached and never modified after
+     * the snapshot is built.
+     */
+    private record Snapshot(Map<Long, FAQ> byId, Map<String, List<FAQ>> byCategory, List<FAQ> all, List<String> categories,
+                            Set<String> vocabulary) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), List.of(), List.of(), Set.of());
+    }
+}
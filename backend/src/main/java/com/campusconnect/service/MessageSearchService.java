@@ -0,0 +1,467 @@
+package com.campusconnect.service;
+
+import com.campusconnect.dto.MessageSearchHit;
+import com.campusconnect.event.MessageSavedEvent;
+import com.campusconnect.event.SessionChangedEvent;
+import com.campusconnect.event.UserChangedEvent;
+import com.campusconnect.model.Message;
+import com.campusconnect.model.User;
+import com.campusconnect.repository.MessageRepository;
+import com.campusconnect.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over a user's own messages. Each user's inverted index (terms with
+ * positions) is built from the database on their first search, kept in an LRU of recently
+ * searching users, and maintained from the message write path while it is resident.
+ * Queries support plain terms, "quoted phrases" and prefix* terms, all of which must match;
+ * results are ranked by BM25 boosted by recency.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageSearchService {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int SNIPPET_LENGTH = 200;
+    private static final int SNIPPET_LEAD = 60;
+
+    private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${search.index.max.users:500}")
+    private int maxResidentUsers;
+
+    @Value("${search.recency.half-life.days:30}")
+    private double recencyHalfLifeDays;
+
+    private final Map<Long, UserIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    public Page<MessageSearchHit> search(String email, String query, int page, int size) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        List<Clause> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            throw new RuntimeException("Search query is empty");
+        }
+
+        List<ScoredDoc> ranked;
+        UserIndex index = indexFor(user.getId());
+        synchronized (index) {
+            ranked = index.search(clauses, recencyHalfLifeDays);
+        }
+
+        int from = Math.min(page * size, ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        List<ScoredDoc> window = ranked.subList(from, to);
+
+        Map<Long, Object[]> snippets = new HashMap<>();
+        if (!window.isEmpty()) {
+            for (Object[] row : messageRepository.findSearchSnippets(window.stream().map(hit -> hit.doc().messageId()).toList())) {
+                snippets.put((Long) row[0], row);
+            }
+        }
+
+        List<MessageSearchHit> hits = new ArrayList<>();
+        for (ScoredDoc hit : window) {
+            Object[] row = snippets.get(hit.doc().messageId());
+            if (row == null) {
+                continue;
+            }
+            MessageSearchHit result = new MessageSearchHit();
+            result.setMessageId(hit.doc().messageId());
+            result.setSessionId(hit.doc().sessionId());
+            result.setSessionTitle((String) row[2]);
+            result.setRole(hit.doc().role());
+            result.setTimestamp(hit.doc().timestamp());
+            result.setScore(Math.round(hit.score() * 1000) / 1000.0);
+            highlight(result, (String) row[1], clauses);
+            hits.add(result);
+        }
+        return new PageImpl<>(hits, PageRequest.of(page, size), ranked.size());
+    }
+
+    /**
+     * Drops every resident index; each is rebuilt from the database on its user's next search.
+     */
+    public void rebuildAll() {
+        synchronized (indexes) {
+            indexes.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSaved(MessageSavedEvent event) {
+        UserIndex index = residentIndex(event.userId());
+        if (index != null) {
+            synchronized (index) {
+                index.add(new Doc(event.messageId(), event.sessionId(), event.role(), event.timestamp()), event.content());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        if (event.type() != SessionChangedEvent.Type.DELETED) {
+            return;
+        }
+        UserIndex index = residentIndex(event.userId());
+        if (index != null) {
+            synchronized (index) {
+                index.removeSession(event.sessionId());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.DELETED) {
+            synchronized (indexes) {
+                indexes.remove(event.userId());
+            }
+        }
+    }
+
+    private UserIndex residentIndex(Long userId) {
+        synchronized (indexes) {
+            return indexes.get(userId);
+        }
+    }
+
+    private UserIndex indexFor(Long userId) {
+        UserIndex index;
+        synchronized (indexes) {
+            // Registered before loading, so messages saved meanwhile reach it (adds are idempotent)
+            index = indexes.computeIfAbsent(userId, id -> new UserIndex());
+            if (indexes.size() > maxResidentUsers) {
+                indexes.remove(indexes.keySet().iterator().next());
+            }
+        }
+
+        synchronized (index) {
+            if (!index.loaded) {
+                UserIndex building = index;
+                long started = System.currentTimeMillis();
+                TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                readOnly.setReadOnly(true);
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = messageRepository.streamSearchRowsByUserId(userId)) {
+                        rows.forEach(row -> building.add(
+                                new Doc((Long) row[0], (Long) row[1], (Message.Role) row[2], (LocalDateTime) row[4]),
+                                (String) row[3]));
+                    }
+                });
+                index.loaded = true;
+                log.debug("Built search index for user {}: {} messages in {} ms",
+                        userId, index.docCount, System.currentTimeMillis() - started);
+            }
+        }
+        return index;
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                int close = query.indexOf('"', i + 1);
+                int end = close < 0 ? query.length() : close;
+                List<String> terms = tokenize(query.substring(i + 1, end)).stream().map(Token::term).toList();
+                if (terms.size() == 1) {
+                    clauses.add(new Clause(Clause.Kind.TERM, terms));
+                } else if (!terms.isEmpty()) {
+                    clauses.add(new Clause(Clause.Kind.PHRASE, terms));
+                }
+                i = end + 1;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                    end++;
+                }
+                String word = query.substring(i, end);
+                boolean prefix = word.endsWith("*");
+                for (Token token : tokenize(word)) {
+                    clauses.add(new Clause(Clause.Kind.TERM, List.of(token.term())));
+                }
+                if (prefix && !clauses.isEmpty() && clauses.get(clauses.size() - 1).kind() == Clause.Kind.TERM) {
+                    // Only the last token of the word carries the wildcard
+                    Clause last = clauses.remove(clauses.size() - 1);
+                    clauses.add(new Clause(Clause.Kind.PREFIX, last.terms()));
+                }
+                i = end;
+            }
+        }
+        return clauses;
+    }
+
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String term = text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)).toLowerCase();
+                tokens.add(new Token(term, start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private static void highlight(MessageSearchHit result, String content, List<Clause> clauses) {
+        List<Token> tokens = tokenize(content);
+        List<Token> matches = tokens.stream().filter(token -> matchesAny(token.term(), clauses)).toList();
+
+        int anchor = matches.isEmpty() ? 0 : matches.get(0).start();
+        int start = Math.max(0, anchor - SNIPPET_LEAD);
+        if (start > 0) {
+            int space = content.indexOf(' ', start);
+            start = space >= 0 && space < anchor ? space + 1 : start;
+        }
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+
+        String lead = start > 0 ? "…" : "";
+        String snippet = lead + content.substring(start, end) + (end < content.length() ? "…" : "");
+
+        List<int[]> highlights = new ArrayList<>();
+        for (Token token : matches) {
+            if (token.start() >= start && token.end() <= end) {
+                int offset = lead.length() - start;
+                highlights.add(new int[]{token.start() + offset, token.end() + offset});
+            }
+        }
+        result.setSnippet(snippet);
+        result.setHighlights(highlights);
+    }
+
+    private static boolean matchesAny(String term, List<Clause> clauses) {
+        for (Clause clause : clauses) {
+            if (clause.kind() == Clause.Kind.PREFIX ? term.startsWith(clause.terms().get(0)) : clause.terms().contains(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Token(String term, int start, int end) {
+    }
+
+    private record Clause(Kind kind, List<String> terms) {
+
+        enum Kind {
+            TERM,
+            PREFIX,
+            PHRASE
+        }
+    }
+
+    private record Doc(Long messageId, Long sessionId, Message.Role role, LocalDateTime timestamp) {
+    }
+
+    private record ScoredDoc(Doc doc, double score) {
+    }
+
+    /**
+     * One user's inverted index. Not thread-safe; callers synchronize on the instance.
+     */
+    private static final class UserIndex {
+
+        private final List<Doc> docs = new ArrayList<>();
+        private final List<String[]> docTerms = new ArrayList<>();
+        private final List<Integer> docLengths = new ArrayList<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        // term -> ordinal -> ascending token positions
+        private final TreeMap<String, Map<Integer, int[]>> postings = new TreeMap<>();
+        private int docCount;
+        private long totalLength;
+        private boolean loaded;
+
+        void add(Doc doc, String content) {
+            if (ordinals.containsKey(doc.messageId()) || content == null) {
+                return;
+            }
+            int ordinal = docs.size();
+            List<Token> tokens = tokenize(content);
+
+            Map<String, List<Integer>> positions = new HashMap<>();
+            for (int position = 0; position < tokens.size(); position++) {
+                positions.computeIfAbsent(tokens.get(position).term(), term -> new ArrayList<>()).add(position);
+            }
+            positions.forEach((term, list) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                    .put(ordinal, list.stream().mapToInt(Integer::intValue).toArray()));
+
+            docs.add(doc);
+            docTerms.add(positions.keySet().toArray(new String[0]));
+            docLengths.add(tokens.size());
+            ordinals.put(doc.messageId(), ordinal);
+            docCount++;
+            totalLength += tokens.size();
+        }
+
+        void removeSession(Long sessionId) {
+            for (int ordinal = 0; ordinal < docs.size(); ordinal++) {
+                Doc doc = docs.get(ordinal);
+                if (doc != null && doc.sessionId().equals(sessionId)) {
+                    for (String term : docTerms.get(ordinal)) {
+                        Map<Integer, int[]> postingList = postings.get(term);
+                        postingList.remove(ordinal);
+                        if (postingList.isEmpty()) {
+                            postings.remove(term);
+                        }
+                    }
+                    ordinals.remove(doc.messageId());
+                    docCount--;
+                    totalLength -= docLengths.get(ordinal);
+                    docs.set(ordinal, null);
+                    docTerms.set(ordinal, null);
+                }
+            }
+        }
+
+        List<ScoredDoc> search(List<Clause> clauses, double halfLifeDays) {
+            Map<Integer, Double> scores = null;
+            for (Clause clause : clauses) {
+                Map<Integer, Double> clauseScores = switch (clause.kind()) {
+                    case TERM -> termScores(clause.terms().get(0));
+                    case PREFIX -> prefixScores(clause.terms().get(0));
+                    case PHRASE -> phraseScores(clause.terms());
+                };
+                if (scores == null) {
+                    scores = clauseScores;
+                } else {
+                    Map<Integer, Double> combined = new HashMap<>();
+                    for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                        Double other = clauseScores.get(entry.getKey());
+                        if (other != null) {
+                            combined.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<ScoredDoc> ranked = new ArrayList<>();
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                Doc doc = docs.get(entry.getKey());
+                double ageDays = doc.timestamp() == null ? 0 : Math.max(0, Duration.between(doc.timestamp(), now).toHours() / 24.0);
+                // Up to 1.5x for brand-new messages, fading towards 1x over a few half-lives
+                double recency = 1 + 0.5 * Math.pow(0.5, ageDays / halfLifeDays);
+                ranked.add(new ScoredDoc(doc, entry.getValue() * recency));
+            }
+            ranked.sort(Comparator.comparingDouble(ScoredDoc::score).reversed()
+                    .thenComparing(hit -> hit.doc().messageId(), Comparator.reverseOrder()));
+            return ranked;
+        }
+
+        private Map<Integer, Double> termScores(String term) {
+            Map<Integer, int[]> postingList = postings.get(term);
+            Map<Integer, Double> scores = new HashMap<>();
+            if (postingList != null) {
+                double idf = idf(postingList.size());
+                postingList.forEach((ordinal, positions) -> scores.put(ordinal, bm25(idf, positions.length, ordinal)));
+            }
+            return scores;
+        }
+
+        private Map<Integer, Double> prefixScores(String prefix) {
+            Map<Integer, Double> scores = new HashMap<>();
+            postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet().stream()
+                    .limit(MAX_PREFIX_EXPANSIONS)
+                    .forEach(term -> termScores(term).forEach((ordinal, score) -> scores.merge(ordinal, score, Double::sum)));
+            return scores;
+        }
+
+        private Map<Integer, Double> phraseScores(List<String> terms) {
+            List<Map<Integer, int[]>> lists = new ArrayList<>();
+            for (String term : terms) {
+                Map<Integer, int[]> postingList = postings.get(term);
+                if (postingList == null) {
+                    return Map.of();
+                }
+                lists.add(postingList);
+            }
+
+            Set<Integer> candidates = new HashSet<>(lists.get(0).keySet());
+            for (int i = 1; i < lists.size(); i++) {
+                candidates.retainAll(lists.get(i).keySet());
+            }
+
+            Map<Integer, Double> scores = new HashMap<>();
+            for (int ordinal : candidates) {
+                if (containsPhrase(lists, ordinal)) {
+                    double score = 0;
+                    for (Map<Integer, int[]> postingList : lists) {
+                        score += bm25(idf(postingList.size()), postingList.get(ordinal).length, ordinal);
+                    }
+                    scores.put(ordinal, score);
+                }
+            }
+            return scores;
+        }
+
+        private static boolean containsPhrase(List<Map<Integer, int[]>> lists, int ordinal) {
+            for (int start : lists.get(0).get(ordinal)) {
+                boolean matched = true;
+                for (int i = 1; i < lists.size() && matched; i++) {
+                    matched = Arrays.binarySearch(lists.get(i).get(ordinal), start + i) >= 0;
+                }
+                if (matched) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private double idf(int documentFrequency) {
+            return Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+
+        private double bm25(double idf, int termFrequency, int ordinal) {
+            double averageLength = docCount == 0 ? 1 : (double) totalLength / docCount;
+            double lengthNorm = 1 - B + B * docLengths.get(ordinal) / Math.max(1, averageLength);
+            return idf * termFrequency * (K1 + 1) / (termFrequency + K1 * lengthNorm);
+        }
+    }
+}
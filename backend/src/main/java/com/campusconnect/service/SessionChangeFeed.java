@@ -0,0 +1,120 @@
+package com.campusconnect.service;
+
+import com.campusconnect.dto.ChatSessionSummary;
+import com.campusconnect.dto.CursorPage;
+import com.campusconnect.dto.SessionChanges;
+import com.campusconnect.event.SessionChangedEvent;
+import com.campusconnect.model.SessionTombstone;
+import com.campusconnect.repository.ChatSessionRepository;
+import com.campusconnect.repository.SessionTombstoneRepository;
+import com.campusconnect.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Change feed for the session sidebar. Every create, update or delete of a session takes the
+ * next value of the owner's {@code users.session_version} inside the same transaction, stamped
+ * on the session row or, for a deletion, on a tombstone. A client holding a cursor gets only
+ * what changed after it, so a sidebar refresh costs O(changes) rather than O(sessions).
+ *
+ * <p>Incrementing the version locks the user's row until commit, so versions become visible in
+ * order and a reader never skips one. Tombstones outlive {@code sync.cursor.max-age.days}; an
+ * older cursor, which could have missed purged deletions, gets the full list instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionChangeFeed {
+
+    private final UserRepository userRepository;
+    private final ChatSessionRepository chatSessionRepository;
+    private final SessionTombstoneRepository sessionTombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${sync.cursor.max-age.days:30}")
+    private int cursorMaxAgeDays;
+
+    // Synchronous: runs inside the transaction that changed the session
+    @EventListener
+    public void onSessionChanged(SessionChangedEvent event) {
+        userRepository.incrementSessionVersion(event.userId());
+        long version = userRepository.findSessionVersion(event.userId());
+        if (event.type() == SessionChangedEvent.Type.DELETED) {
+            SessionTombstone tombstone = new SessionTombstone();
+            tombstone.setUserId(event.userId());
+            tombstone.setSessionId(event.sessionId());
+            tombstone.setVersion(version);
+            sessionTombstoneRepository.save(tombstone);
+        } else {
+            chatSessionRepository.setChangeVersion(event.sessionId(), version);
+        }
+    }
+
+    /**
+     * Sessions changed since {@code cursor}, or the full list when there is no usable cursor.
+     */
+    @Transactional(readOnly = true)
+    public SessionChanges getChanges(String email, String cursor) {
+        // One read-only transaction: the version and the rows come from the same snapshot
+        List<Object[]> rows = userRepository.findSessionVersionByEmail(email);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        Long userId = (Long) rows.get(0)[0];
+        long current = (Long) rows.get(0)[1];
+        long now = System.currentTimeMillis();
+        String next = CursorPage.encodeCursor(current, now);
+
+        Long since = sinceVersion(cursor, current, now);
+        if (since == null) {
+            List<ChatSessionSummary> all = chatSessionRepository.findSummariesChangedAfter(userId, -1);
+            return new SessionChanges(next, true, all, List.of());
+        }
+        if (since == current) {
+            return new SessionChanges(next, false, List.of(), List.of());
+        }
+        return new SessionChanges(
+                next,
+                false,
+                chatSessionRepository.findSummariesChangedAfter(userId, since),
+                sessionTombstoneRepository.findSessionIdsDeletedAfter(userId, since));
+    }
+
+    @Scheduled(cron = "${sync.tombstone.purge.cron:0 45 3 * * *}")
+    public void purgeTombstones() {
+        // A day past the cursor lifetime: covers deletions committed just after a cursor was issued
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(cursorMaxAgeDays + 1L);
+        Integer purged = transactionTemplate.execute(status -> sessionTombstoneRepository.purgeDeletedBefore(cutoff));
+        log.info("Purged {} session tombstones older than {} days", purged, cursorMaxAgeDays + 1);
+    }
+
+    // The cursor's version, or null when the client needs the full list
+    private Long sinceVersion(String cursor, long current, long now) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String[] keys = CursorPage.decodeCursor(cursor, 2);
+        long version;
+        long issuedAt;
+        try {
+            version = Long.parseLong(keys[0]);
+            issuedAt = Long.parseLong(keys[1]);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        if (now - issuedAt > Duration.ofDays(cursorMaxAgeDays).toMillis() || version > current || version < 0) {
+            return null;
+        }
+        return version;
+    }
+}
@@ -0,0 +1,223 @@
+package com.campusconnect.service;
+
+import com.campusconnect.event.MessageSavedEvent;
+import com.campusconnect.event.SessionChangedEvent;
+import com.campusconnect.event.UserChangedEvent;
+import com.campusconnect.model.StatsRollup;
+import com.campusconnect.repository.ChatSessionRepository;
+import com.campusconnect.repository.MessageRepository;
+import com.campusconnect.repository.StatsRollupRepository;
+import com.campusconnect.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Dashboard counters maintained on the write paths, so reading them costs the same no matter
+ * how large the tables grow. Values are flushed to {@code stats_rollup} and periodically
+ * reconciled against real COUNT queries to correct any drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatsService {
+
+    private static final String TOTAL_USERS = "users.total";
+    private static final String ACTIVE_USERS = "users.active";
+    private static final String TOTAL_SESSIONS = "sessions.total";
+    private static final String TOTAL_MESSAGES = "messages.total";
+    private static final String RESPONSE_COUNT = "responses.count";
+    private static final String RESPONSE_MILLIS = "responses.millis";
+
+    private static final int WINDOW_MINUTES = 24 * 60;
+
+    private final UserRepository userRepository;
+    private final ChatSessionRepository chatSessionRepository;
+    private final MessageRepository messageRepository;
+    private final StatsRollupRepository statsRollupRepository;
+
+    private final Map<String, LongAdder> counters = new LinkedHashMap<>(Map.of(
+            TOTAL_USERS, new LongAdder(),
+            ACTIVE_USERS, new LongAdder(),
+            TOTAL_SESSIONS, new LongAdder(),
+            TOTAL_MESSAGES, new LongAdder(),
+            RESPONSE_COUNT, new LongAdder(),
+            RESPONSE_MILLIS, new LongAdder()
+    ));
+
+    // Rolling 24h message window, one slot per minute; a slot is reset when its minute comes round again
+    private final AtomicLongArray minuteCounts = new AtomicLongArray(WINDOW_MINUTES);
+    private final AtomicLongArray minuteStamps = new AtomicLongArray(WINDOW_MINUTES);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<StatsRollup> rollups = statsRollupRepository.findAll();
+        rollups.forEach(rollup -> {
+            LongAdder counter = counters.get(rollup.getName());
+            if (counter != null) {
+                counter.add(rollup.getValue());
+            }
+        });
+
+        if (rollups.stream().map(StatsRollup::getName).filter(counters::containsKey).count() < counters.size()) {
+            reconcile();
+        }
+        seedRecentWindow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        long activeDelta = (event.active() ? 1 : 0) - (event.wasActive() ? 1 : 0);
+        switch (event.type()) {
+            case REGISTERED -> counters.get(TOTAL_USERS).increment();
+            case DELETED -> counters.get(TOTAL_USERS).decrement();
+            default -> {
+            }
+        }
+        counters.get(ACTIVE_USERS).add(activeDelta);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        if (event.type() == SessionChangedEvent.Type.CREATED) {
+            counters.get(TOTAL_SESSIONS).increment();
+        } else if (event.type() == SessionChangedEvent.Type.DELETED) {
+            counters.get(TOTAL_SESSIONS).decrement();
+            counters.get(TOTAL_MESSAGES).add(-event.messageCount());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSaved(MessageSavedEvent event) {
+        counters.get(TOTAL_MESSAGES).increment();
+        recordMessageAt(epochMinute(event.timestamp() != null ? event.timestamp() : LocalDateTime.now()), 1);
+    }
+
+    public void recordResponseTime(long millis) {
+        counters.get(RESPONSE_COUNT).increment();
+        counters.get(RESPONSE_MILLIS).add(millis);
+    }
+
+    public Map<String, Object> getDashboardStats() {
+        long responses = counters.get(RESPONSE_COUNT).sum();
+        double avgResponseSeconds = responses == 0 ? 0.0
+                : Math.round(counters.get(RESPONSE_MILLIS).sum() / (double) responses / 10.0) / 100.0;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", counters.get(TOTAL_USERS).sum());
+        stats.put("activeUsers", counters.get(ACTIVE_USERS).sum());
+        stats.put("totalSessions", counters.get(TOTAL_SESSIONS).sum());
+        stats.put("totalQueries", counters.get(TOTAL_MESSAGES).sum());
+        stats.put("todayQueries", messagesInWindow());
+        stats.put("avgResponseTime", avgResponseSeconds);
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.flush.ms:30000}", initialDelayString = "${stats.flush.ms:30000}")
+    public synchronized void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StatsRollup> rollups = counters.entrySet().stream()
+                .map(entry -> new StatsRollup(entry.getKey(), entry.getValue().sum(), now))
+                .toList();
+        statsRollupRepository.saveAll(rollups);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush stats rollup on shutdown: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${stats.reconcile.cron:0 0 * * * *}")
+    public synchronized void reconcile() {
+        reconcile(TOTAL_USERS, userRepository::count);
+        reconcile(ACTIVE_USERS, () -> userRepository.countByActive(true));
+        reconcile(TOTAL_SESSIONS, chatSessionRepository::count);
+        reconcile(TOTAL_MESSAGES, messageRepository::count);
+    }
+
+    private void reconcile(String name, LongSupplier trueCount) {
+        LongAdder counter = counters.get(name);
+        // Reset before counting: the COUNT replaces everything recorded so far, and only the
+        // increments recorded after the reset are kept on top of it
+        long before = counter.sumThenReset();
+        long actual;
+        try {
+            actual = trueCount.getAsLong();
+        } catch (RuntimeException e) {
+            counter.add(before);
+            throw e;
+        }
+        counter.add(actual);
+        long drift = counter.sum() - before;
+        if (drift != 0) {
+            log.info("Reconciled {} by {} (now {})", name, drift, counter.sum());
+        }
+    }
+
+    private void seedRecentWindow() {
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(23);
+        for (int i = 0; i < 24; i++) {
+            LocalDateTime next = hour.plusHours(1);
+            long count = messageRepository.countMessagesBetween(hour, next);
+            if (count > 0) {
+                recordMessageAt(epochMinute(hour), count);
+            }
+            hour = next;
+        }
+    }
+
+    private void recordMessageAt(long epochMinute, long delta) {
+        long currentMinute = epochMinute(LocalDateTime.now());
+        if (epochMinute <= currentMinute - WINDOW_MINUTES) {
+            return;
+        }
+
+        int slot = (int) (epochMinute % WINDOW_MINUTES);
+        if (minuteStamps.get(slot) != epochMinute) {
+            synchronized (minuteStamps) {
+                if (minuteStamps.get(slot) < epochMinute) {
+                    minuteCounts.set(slot, 0);
+                    minuteStamps.set(slot, epochMinute);
+                } else if (minuteStamps.get(slot) > epochMinute) {
+                    return;
+                }
+            }
+        }
+        minuteCounts.addAndGet(slot, delta);
+    }
+
+    private long messagesInWindow() {
+        long oldest = epochMinute(LocalDateTime.now()) - WINDOW_MINUTES;
+        long total = 0;
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (minuteStamps.get(slot) > oldest) {
+                total += minuteCounts.get(slot);
+            }
+        }
+        return total;
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
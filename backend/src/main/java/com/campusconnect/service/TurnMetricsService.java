@@ -0,0 +1,191 @@
+package com.campusconnect.service;
+
+import com.campusconnect.dto.GroqCompletion;
+import com.campusconnect.model.TurnMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Latency percentiles per chat phase and token totals, kept as HDR histograms per category
+ * and model since startup and published to Micrometer. The per-turn figures themselves are
+ * persisted on the assistant message, so longer windows can be computed from the messages table.
+ * Categories outside {@link ChatService#CATEGORIES} are reported as "other" to keep tags bounded.
+ */
+@Service
+@RequiredArgsConstructor
+public class TurnMetricsService {
+
+    private static final long MAX_TRACKABLE_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    @Value("${chat.slo.total.ms:8000}")
+    private long sloTotalMs;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<SeriesKey, TurnSeries> series = new ConcurrentHashMap<>();
+
+    public void record(String category, TurnMetrics metrics) {
+        String tagCategory = boundedCategory(category);
+        String model = metrics.getModel() != null ? metrics.getModel() : "none";
+        series.computeIfAbsent(new SeriesKey(tagCategory, model), k -> new TurnSeries()).record(metrics);
+
+        if (!GroqCompletion.servedLocally(metrics.getOutcome())) {
+            Timer.builder("groq.request")
+                    .description("Time waiting on Groq for a chat turn, including the concurrency permit")
+                    .tags("outcome", metrics.getOutcome(), "model", model, "category", tagCategory)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(metrics.getLlmWaitMs(), TimeUnit.MILLISECONDS);
+        }
+
+        for (Phase phase : Phase.values()) {
+            Long millis = phase.value.apply(metrics);
+            if (millis != null && phase != Phase.LLM_WAIT) {
+                Timer.builder("chat.turn.phase")
+                        .tags("phase", phase.label, "category", tagCategory)
+                        .register(meterRegistry)
+                        .record(millis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        countTokens("prompt", metrics.getPromptTokens(), model, tagCategory);
+        countTokens("completion", metrics.getCompletionTokens(), model, tagCategory);
+    }
+
+    public Map<String, Object> snapshot() {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        series.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<SeriesKey, TurnSeries> e) -> e.getKey().category())
+                        .thenComparing(e -> e.getKey().model()))
+                .forEach(e -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("category", e.getKey().category());
+                    entry.put("model", e.getKey().model());
+                    entry.putAll(e.getValue().snapshot(sloTotalMs));
+                    entries.add(entry);
+                });
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("sloTotalMs", sloTotalMs);
+        snapshot.put("series", entries);
+        return snapshot;
+    }
+
+    private void countTokens(String type, Integer tokens, String model, String category) {
+        if (tokens == null) {
+            return;
+        }
+        Counter.builder("groq.tokens")
+                .baseUnit("tokens")
+                .tags("type", type, "model", model, "category", category)
+                .register(meterRegistry)
+                .increment(tokens);
+    }
+
+    private static String boundedCategory(String category) {
+        if (category == null || category.isEmpty()) {
+            return "general";
+        }
+        return ChatService.CATEGORIES.stream()
+                .filter(known -> known.equalsIgnoreCase(category))
+                .findFirst()
+                .orElse("other");
+    }
+
+    private enum Phase {
+        DB_READ("dbRead", TurnMetrics::getDbReadMs),
+        PROMPT_BUILD("promptBuild", TurnMetrics::getPromptBuildMs),
+        LLM_WAIT("llmWait", TurnMetrics::getLlmWaitMs),
+        FIRST_TOKEN("firstToken", TurnMetrics::getFirstTokenMs),
+        DB_WRITE("dbWrite", TurnMetrics::getDbWriteMs),
+        TOTAL("total", TurnMetrics::getTotalMs);
+
+        private final String label;
+        private final Function<TurnMetrics, Long> value;
+
+        Phase(String label, Function<TurnMetrics, Long> value) {
+            this.label = label;
+            this.value = value;
+        }
+    }
+
+    private record SeriesKey(String category, String model) {
+    }
+
+    private static final class TurnSeries {
+
+        private final Map<Phase, Histogram> histograms = new EnumMap<>(Phase.class);
+        private final LongAdder turns = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+
+        TurnSeries() {
+            for (Phase phase : Phase.values()) {
+                histograms.put(phase, new ConcurrentHistogram(MAX_TRACKABLE_MS, SIGNIFICANT_DIGITS));
+            }
+        }
+
+        void record(TurnMetrics metrics) {
+            turns.increment();
+            for (Phase phase : Phase.values()) {
+                Long millis = phase.value.apply(metrics);
+                if (millis != null) {
+                    histograms.get(phase).recordValue(Math.min(Math.max(millis, 0), MAX_TRACKABLE_MS));
+                }
+            }
+            if (metrics.getPromptTokens() != null) {
+                promptTokens.add(metrics.getPromptTokens());
+            }
+            if (metrics.getCompletionTokens() != null) {
+                completionTokens.add(metrics.getCompletionTokens());
+            }
+        }
+
+        Map<String, Object> snapshot(long sloTotalMs) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("turns", turns.sum());
+            stats.put("promptTokens", promptTokens.sum());
+            stats.put("completionTokens", completionTokens.sum());
+
+            Histogram total = histograms.get(Phase.TOTAL).copy();
+            stats.put("withinSloPercent", total.getTotalCount() == 0 ? null
+                    : Math.round(total.getPercentileAtOrBelowValue(sloTotalMs) * 10.0) / 10.0);
+
+            Map<String, Object> phases = new LinkedHashMap<>();
+            for (Phase phase : Phase.values()) {
+                Histogram histogram = histograms.get(phase).copy();
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                Map<String, Object> percentiles = new LinkedHashMap<>();
+                percentiles.put("count", histogram.getTotalCount());
+                percentiles.put("p50", histogram.getValueAtPercentile(50));
+                percentiles.put("p90", histogram.getValueAtPercentile(90));
+                percentiles.put("p99", histogram.getValueAtPercentile(99));
+                percentiles.put("max", histogram.getMaxValue());
+                percentiles.put("mean", Math.round(histogram.getMean()));
+                phases.put(phase.label, percentiles);
+            }
+            stats.put("phasesMs", phases);
+            return stats;
+        }
+    }
+}
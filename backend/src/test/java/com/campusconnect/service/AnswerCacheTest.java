@@ -0,0 +1,67 @@
+package com.campusconnect.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerCacheTest {
+
+    private static final String CATEGORY = "Fees";
+
+    private AnswerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // A disabled store: only the in-memory lookup is under test
+        cache = new AnswerCache(null, new AnswerStore(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "similarity", 0.6);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlHours", 24L);
+        cache.init();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "what is the btech fee structure for first year | What's the B.Tech fee structure for first year?",
+            "what are the hostel fees per year | hostel fee per year",
+            "what documents are required for btech admission | documents required for the btech admission process"
+    })
+    void servesRephrasedQuestions(String asked, String rephrased) {
+        cache.put(CATEGORY, asked, "answer");
+
+        assertThat(cache.lookup(CATEGORY, rephrased)).contains("answer");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "is hostel available | is hostel not available",
+            "is hostel available for girls | is hostel not available for girls",
+            "can I pay the fee in installments | can't I pay the fee in installments",
+            "is transport available on sundays | is transport available on sundays without a pass",
+            "btech fee structure for 2024 batch | btech fee structure for 2025 batch",
+            "what is the tuition fee for 2024-25 | what is the tuition fee for 2025-26",
+            "btech cse fee structure first year | btech ece fee structure first year",
+            "hostel fee for first year students | hostel fee for second year students",
+            "btech tuition fee per semester | mtech tuition fee per semester",
+            "management quota fee for cse | fee for cse"
+    })
+    void keepsApartQuestionsWithDifferentAnswers(String asked, String different) {
+        cache.put(CATEGORY, asked, "answer");
+
+        assertThat(cache.lookup(CATEGORY, different)).isEmpty();
+        assertThat(cache.lookup(CATEGORY, asked)).contains("answer");
+    }
+
+    @Test
+    void keepsCategoriesApart() {
+        cache.put(CATEGORY, "what is the fee structure", "answer");
+
+        assertThat(cache.lookup("Admissions", "what is the fee structure")).isEmpty();
+    }
+}
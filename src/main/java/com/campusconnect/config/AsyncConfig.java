@@ -0,0 +1,50 @@
+package com.campusconnect.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Value("${export.async.timeout.ms:1800000}")
+    private long exportTimeoutMs;
+
+    /**
+     * Applied by Spring Boot to the application task executor, which runs StreamingResponseBody
+     * and Callable handlers: the async part of a request stays in its execution lane and is
+     * counted with the request's SQL statements.
+     */
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return task -> ExecutionLane.propagating(SqlStatementCounter.propagating(task));
+    }
+
+    /**
+     * Streamed exports of a long history outlast {@code spring.mvc.async.request-timeout},
+     * which is sized for chat; requests in the export lane get {@code export.async.timeout.ms}.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Called with the request's AsyncWebRequest before async processing starts
+                HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+                if (request instanceof AsyncWebRequest asyncRequest && servletRequest != null
+                        && ExecutionLane.resolve(servletRequest) == ExecutionLane.EXPORT) {
+                    asyncRequest.setTimeout(exportTimeoutMs);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package com.campusconnect.config;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Bulkhead {
+
+    @Getter
+    private final ExecutionLane lane;
+    private final BulkheadProperties.Lane settings;
+
+    private final Semaphore slots;
+    private final Semaphore jdbcSlots;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder jdbcTimeouts = new LongAdder();
+
+    public Bulkhead(ExecutionLane lane, BulkheadProperties.Lane settings) {
+        this.lane = lane;
+        this.settings = settings;
+        this.slots = new Semaphore(settings.getMaxConcurrent(), true);
+        this.jdbcSlots = new Semaphore(settings.getJdbcConnections(), true);
+    }
+
+    public boolean tryEnter() throws InterruptedException {
+        if (slots.tryAcquire()) {
+            admitted.increment();
+            return true;
+        }
+
+        if (queued.incrementAndGet() > settings.getQueueCapacity()) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+
+        try {
+            if (slots.tryAcquire(settings.getQueueTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                admitted.increment();
+                return true;
+            }
+            rejected.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes a free slot or rejects at once, for callers that must not park their thread
+     * waiting in the queue.
+     */
+    public boolean tryEnterNow() {
+        if (slots.tryAcquire()) {
+            admitted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void exit() {
+        slots.release();
+    }
+
+    public boolean tryAcquireConnection() throws InterruptedException {
+        if (jdbcSlots.tryAcquire(settings.getJdbcTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        jdbcTimeouts.increment();
+        return false;
+    }
+
+    public void releaseConnection() {
+        jdbcSlots.release();
+    }
+
+    public int getActive() {
+        return settings.getMaxConcurrent() - slots.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getConnectionsInUse() {
+        return settings.getJdbcConnections() - jdbcSlots.availablePermits();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getJdbcTimeouts() {
+        return jdbcTimeouts.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrent", settings.getMaxConcurrent());
+        stats.put("active", getActive());
+        stats.put("queueCapacity", settings.getQueueCapacity());
+        stats.put("queued", getQueued());
+        stats.put("admitted", getAdmitted());
+        stats.put("rejected", getRejected());
+        stats.put("jdbcConnections", settings.getJdbcConnections());
+        stats.put("jdbcInUse", getConnectionsInUse());
+        stats.put("jdbcTimeouts", getJdbcTimeouts());
+        return stats;
+    }
+}
@@ -0,0 +1,47 @@
+package com.campusconnect.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    // Defaults assume the stock Tomcat (200 threads) and HikariCP (10 connections) pools
+    private Lane chat = new Lane(40, 60, 2000, 4, 2000);
+    private Lane auth = new Lane(20, 30, 1000, 3, 1000);
+    private Lane admin = new Lane(10, 10, 1000, 2, 2000);
+    private Lane export = new Lane(2, 4, 500, 1, 5000);
+
+    public Lane lane(ExecutionLane lane) {
+        return switch (lane) {
+            case CHAT -> chat;
+            case AUTH -> auth;
+            case ADMIN -> admin;
+            case EXPORT -> export;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lane {
+
+        // Requests allowed to execute in this lane at the same time
+        private int maxConcurrent;
+
+        // Requests allowed to wait for a slot before being rejected with 503
+        private int queueCapacity;
+
+        private long queueTimeoutMs;
+
+        // Share of the JDBC pool this lane may hold at once
+        private int jdbcConnections;
+
+        private long jdbcTimeoutMs;
+    }
+}
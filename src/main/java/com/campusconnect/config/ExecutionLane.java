@@ -0,0 +1,92 @@
+package com.campusconnect.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The bulkhead lane of the work on the current thread. {@link BulkheadFilter} binds it for a
+ * request; work handed to other threads carries it with {@link #propagating(Runnable)}, and
+ * pools that only ever do one lane's work bind it for good with {@link #threadFactory}.
+ */
+public enum ExecutionLane {
+    CHAT,
+    AUTH,
+    ADMIN,
+    EXPORT;
+
+    private static final ThreadLocal<ExecutionLane> CURRENT = new ThreadLocal<>();
+
+    public static ExecutionLane resolve(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        if (path.startsWith("/api/admin/")) {
+            return ADMIN;
+        }
+        if (path.startsWith("/api/chat/export/jobs")) {
+            // Jobs render on their own worker pool; only the file transfer counts against the export lane
+            return path.endsWith("/download") ? EXPORT : CHAT;
+        }
+        if (path.startsWith("/api/chat/export") || (path.startsWith("/api/chat/session/") && path.endsWith("/export"))) {
+            return EXPORT;
+        }
+        if (path.startsWith("/api/chat/")) {
+            return CHAT;
+        }
+        return null;
+    }
+
+    public static ExecutionLane current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs {@code task} in the lane that is current now, on whichever thread runs it.
+     */
+    public static Runnable propagating(Runnable task) {
+        ExecutionLane lane = current();
+        if (lane == null) {
+            return task;
+        }
+        return () -> {
+            ExecutionLane previous = current();
+            bind(lane);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    bind(previous);
+                } else {
+                    unbind();
+                }
+            }
+        };
+    }
+
+    /**
+     * Threads named {@code prefix-N} that run everything in {@code lane}.
+     */
+    public static ThreadFactory threadFactory(ExecutionLane lane, String prefix, boolean daemon) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                bind(lane);
+                runnable.run();
+            }, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(daemon);
+            return thread;
+        };
+    }
+
+    static void bind(ExecutionLane lane) {
+        CURRENT.set(lane);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,62 @@
+package com.campusconnect.config;
+
+import com.campusconnect.service.GroqService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges over state the application already tracks: bulkhead lanes, the Groq concurrency
+ * permits and virtual-thread pinning. Request timers, HikariCP and JVM metrics come from
+ * Actuator's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder bulkheadMetrics(BulkheadRegistry bulkheadRegistry) {
+        return registry -> {
+            for (ExecutionLane lane : ExecutionLane.values()) {
+                Bulkhead bulkhead = bulkheadRegistry.get(lane);
+                String tag = lane.name().toLowerCase();
+                Gauge.builder("bulkhead.active", bulkhead, Bulkhead::getActive)
+                        .tag("lane", tag)
+                        .register(registry);
+                Gauge.builder("bulkhead.queued", bulkhead, Bulkhead::getQueued)
+                        .tag("lane", tag)
+                        .register(registry);
+                Gauge.builder("bulkhead.jdbc.in.use", bulkhead, Bulkhead::getConnectionsInUse)
+                        .tag("lane", tag)
+                        .register(registry);
+                FunctionCounter.builder("bulkhead.admitted", bulkhead, Bulkhead::getAdmitted)
+                        .tag("lane", tag)
+                        .register(registry);
+                FunctionCounter.builder("bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+                        .tag("lane", tag)
+                        .register(registry);
+                FunctionCounter.builder("bulkhead.jdbc.timeouts", bulkhead, Bulkhead::getJdbcTimeouts)
+                        .tag("lane", tag)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder groqMetrics(GroqService groqService) {
+        return registry -> {
+            Gauge.builder("groq.permits.available", groqService, GroqService::getAvailablePermits)
+                    .register(registry);
+            Gauge.builder("groq.permits.max", groqService, GroqService::getMaxConcurrent)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder pinnedThreadMetrics(PinnedThreadMonitor pinnedThreadMonitor) {
+        return registry -> FunctionCounter.builder("jvm.threads.virtual.pinned", pinnedThreadMonitor, PinnedThreadMonitor::getPinnedEvents)
+                .description("Virtual thread pinning events above the monitor threshold")
+                .register(registry);
+    }
+}
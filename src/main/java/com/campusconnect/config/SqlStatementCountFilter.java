@@ -0,0 +1,60 @@
+package com.campusconnect.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    @Value("${sql.statements.warn.threshold:20}")
+    private int warnThreshold;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    // The async dispatch finishes the request and reports the total
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        AtomicInteger count = (AtomicInteger) request.getAttribute(SqlStatementCounter.REQUEST_ATTRIBUTE);
+        if (count == null) {
+            count = new AtomicInteger();
+            request.setAttribute(SqlStatementCounter.REQUEST_ATTRIBUTE, count);
+        }
+        SqlStatementCounter.bind(count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.unbind();
+            if (!request.isAsyncStarted()) {
+                report(request, count.get());
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, int statements) {
+        if (statements > warnThreshold) {
+            log.warn("{} {} issued {} SQL statements", request.getMethod(), request.getRequestURI(), statements);
+        } else {
+            log.debug("{} {} issued {} SQL statements", request.getMethod(), request.getRequestURI(), statements);
+        }
+    }
+}
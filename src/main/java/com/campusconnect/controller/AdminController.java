@@ -1,20 +1,33 @@
 package com.campusconnect.controller;
 
+import com.campusconnect.config.BulkheadRegistry;
+import com.campusconnect.config.PinnedThreadMonitor;
+import com.campusconnect.dto.CursorPage;
 import com.campusconnect.dto.UserDTO;
+import com.campusconnect.event.FaqChangedEvent;
+import com.campusconnect.event.UserChangedEvent;
 import com.campusconnect.model.FAQ;
 import com.campusconnect.model.User;
 import com.campusconnect.repository.FAQRepository;
-import com.campusconnect.repository.MessageRepository;
 import com.campusconnect.repository.UserRepository;
+import com.campusconnect.service.AnalyticsService;
+import com.campusconnect.service.AnswerCache;
 import com.campusconnect.service.GroqService;
+import com.campusconnect.service.IntentRouter;
+import com.campusconnect.service.MessageSearchService;
+import com.campusconnect.service.QuotaService;
+import com.campusconnect.service.StatsService;
+import com.campusconnect.service.TurnMetricsService;
+import com.campusconnect.service.UserSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,20 +40,23 @@ public class AdminController {
 
     private final UserRepository userRepository;
     private final FAQRepository faqRepository;
-    private final MessageRepository messageRepository;
     private final GroqService groqService;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final PinnedThreadMonitor pinnedThreadMonitor;
+    private final StatsService statsService;
+    private final AnalyticsService analyticsService;
+    private final TurnMetricsService turnMetricsService;
+    private final QuotaService quotaService;
+    private final UserSearchIndex userSearchIndex;
+    private final MessageSearchService messageSearchService;
+    private final IntentRouter intentRouter;
+    private final AnswerCache answerCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Dashboard Stats
     @GetMapping("/dashboard/stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalUsers", userRepository.count());
-        stats.put("activeUsers", userRepository.countByActive(true));
-        stats.put("totalQueries", messageRepository.count());
-        stats.put("todayQueries", messageRepository.countMessagesSince(LocalDateTime.now().minusDays(1)));
-        stats.put("avgResponseTime", 1.2); // Mock data
-        
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(statsService.getDashboardStats());
     }
 
     // User Management
@@ -50,6 +66,10 @@ public class AdminController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String search
     ) {
+        if (search != null && !search.isEmpty() && userSearchIndex.isReady()) {
+            return ResponseEntity.ok(userSearchIndex.search(search, page, size));
+        }
+        
         Page<User> users;
         if (search != null && !search.isEmpty()) {
             users = userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
@@ -63,6 +83,42 @@ public class AdminController {
         return ResponseEntity.ok(userDTOs);
     }
 
+    @GetMapping("/users/cursor")
+    public ResponseEntity<CursorPage<UserDTO>> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        int pageSize = CursorPage.clampSize(size);
+        boolean searching = search != null && !search.isEmpty();
+        if (searching && userSearchIndex.isReady()) {
+            // Ranked results; the cursor carries (score, id) instead of just the id
+            return ResponseEntity.ok(userSearchIndex.search(search, cursor, pageSize, includeTotal));
+        }
+        
+        Long afterId = decodeIdCursor(cursor);
+        
+        List<User> users = searching
+                ? userRepository.searchByIdGreaterThan(afterId, search, Limit.of(pageSize + 1))
+                : userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        
+        Long total = null;
+        if (includeTotal) {
+            total = searching
+                    ? userRepository.countByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(search, search)
+                    : userRepository.count();
+        }
+        
+        CursorPage<UserDTO> page = CursorPage.of(
+                users.stream().map(UserDTO::fromUser).toList(),
+                pageSize,
+                user -> CursorPage.encodeCursor(user.getId()),
+                total
+        );
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/users/{userId}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable Long userId) {
         User user = userRepository.findById(userId)
@@ -77,6 +133,7 @@ public class AdminController {
     ) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean wasActive = user.getActive();
         
         if (userDTO.getName() != null) user.setName(userDTO.getName());
         if (userDTO.getEmail() != null) user.setEmail(userDTO.getEmail());
@@ -84,12 +141,16 @@ public class AdminController {
         if (userDTO.getActive() != null) user.setActive(userDTO.getActive());
         
         user = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(user, wasActive));
         return ResponseEntity.ok(UserDTO.fromUser(user));
     }
 
     @DeleteMapping("/users/{userId}")
     public ResponseEntity<Map<String, String>> deleteUser(@PathVariable Long userId) {
-        userRepository.deleteById(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(user));
         return ResponseEntity.ok(Map.of("message", "User deleted successfully"));
     }
 
@@ -97,8 +158,10 @@ public class AdminController {
     public ResponseEntity<UserDTO> toggleUserStatus(@PathVariable Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setActive(!user.getActive());
+        boolean wasActive = user.getActive();
+        user.setActive(!wasActive);
         user = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(user, wasActive));
         return ResponseEntity.ok(UserDTO.fromUser(user));
     }
 
@@ -118,9 +181,33 @@ public class AdminController {
         return ResponseEntity.ok(faqs);
     }
 
+    @GetMapping("/faq/cursor")
+    public ResponseEntity<CursorPage<FAQ>> getFAQsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        int pageSize = CursorPage.clampSize(size);
+        Long afterId = decodeIdCursor(cursor);
+        boolean filtered = category != null && !category.isEmpty();
+        
+        List<FAQ> faqs = filtered
+                ? faqRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(category, afterId, Limit.of(pageSize + 1))
+                : faqRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        
+        Long total = null;
+        if (includeTotal) {
+            total = filtered ? faqRepository.countByCategory(category) : faqRepository.count();
+        }
+        
+        return ResponseEntity.ok(CursorPage.of(faqs, pageSize, faq -> CursorPage.encodeCursor(faq.getId()), total));
+    }
+
     @PostMapping("/faq")
     public ResponseEntity<FAQ> createFAQ(@RequestBody FAQ faq) {
         faq = faqRepository.save(faq);
+        eventPublisher.publishEvent(new FaqChangedEvent(FaqChangedEvent.Type.CREATED, faq.getId()));
         return ResponseEntity.ok(faq);
     }
 
@@ -135,12 +222,14 @@ public class AdminController {
         faq.setActive(faqData.getActive());
         
         faq = faqRepository.save(faq);
+        eventPublisher.publishEvent(new FaqChangedEvent(FaqChangedEvent.Type.UPDATED, faq.getId()));
         return ResponseEntity.ok(faq);
     }
 
     @DeleteMapping("/faq/{faqId}")
     public ResponseEntity<Map<String, String>> deleteFAQ(@PathVariable Long faqId) {
         faqRepository.deleteById(faqId);
+        eventPublisher.publishEvent(new FaqChangedEvent(FaqChangedEvent.Type.DELETED, faqId));
         return ResponseEntity.ok(Map.of("message", "FAQ deleted successfully"));
     }
 
@@ -160,6 +249,43 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("message", "Settings updated successfully"));
     }
 
+    @GetMapping("/system/lanes")
+    public ResponseEntity<Map<String, Object>> getExecutionLanes() {
+        return ResponseEntity.ok(bulkheadRegistry.snapshot());
+    }
+
+    @GetMapping("/system/threads")
+    public ResponseEntity<Map<String, Object>> getThreadingStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("virtualThreads", Thread.currentThread().isVirtual());
+        stats.put("pinning", pinnedThreadMonitor.snapshot());
+        stats.put("groqMaxConcurrent", groqService.getMaxConcurrent());
+        stats.put("groqAvailablePermits", groqService.getAvailablePermits());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/system/latency")
+    public ResponseEntity<Map<String, Object>> getChatLatency() {
+        return ResponseEntity.ok(turnMetricsService.snapshot());
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildMessageSearch() {
+        messageSearchService.rebuildAll();
+        return ResponseEntity.ok(Map.of("message", "Message search indexes will be rebuilt on next use"));
+    }
+
+    @GetMapping("/system/intents")
+    public ResponseEntity<Map<String, Object>> getIntentStats() {
+        return ResponseEntity.ok(intentRouter.snapshot());
+    }
+
+    @DeleteMapping("/cache/answers")
+    public ResponseEntity<Map<String, String>> clearAnswerCache() {
+        answerCache.clear();
+        return ResponseEntity.ok(Map.of("message", "Answer cache cleared"));
+    }
+
     // Groq API Configuration
     @PostMapping("/settings/groq/test")
     public ResponseEntity<Map<String, Object>> testGroqConnection() {
@@ -176,9 +302,25 @@ public class AdminController {
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate
     ) {
-        Map<String, Object> analytics = new HashMap<>();
-        analytics.put("totalQueries", messageRepository.count());
-        analytics.put("categoryCounts", messageRepository.countByCategory());
-        return ResponseEntity.ok(analytics);
+        return ResponseEntity.ok(analyticsService.getQueryAnalytics(startDate, endDate));
+    }
+
+    @GetMapping("/usage/top")
+    public ResponseEntity<List<Map<String, Object>>> getTopConsumers(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(quotaService.getTopConsumers(days, limit));
+    }
+
+    private Long decodeIdCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(CursorPage.decodeCursor(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
     }
 }
@@ -2,25 +2,53 @@ package com.campusconnect.controller;
 
 import com.campusconnect.dto.ChatRequest;
 import com.campusconnect.dto.ChatResponse;
+import com.campusconnect.dto.ChatSessionSummary;
+import com.campusconnect.dto.CursorPage;
+import com.campusconnect.dto.ExportJobStatus;
+import com.campusconnect.dto.MessageSearchHit;
+import com.campusconnect.dto.MessageWindow;
+import com.campusconnect.dto.SessionChanges;
 import com.campusconnect.model.ChatSession;
 import com.campusconnect.service.ChatService;
+import com.campusconnect.service.ExportJobService;
+import com.campusconnect.service.MessageSearchService;
+import com.campusconnect.service.SessionChangeFeed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Read endpoints the frontend polls on every page load answer conditional requests: the
+ * per-user ones compare {@code If-None-Match} against a validator computed by a narrow
+ * aggregate query, before anything is loaded or serialized, and reply 304 when it matches.
+ */
 @RestController
 @RequestMapping("/api/chat")
 @RequiredArgsConstructor
 public class ChatController {
 
+    // Browsers may keep these responses but must revalidate each use; they differ per user
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final String CATEGORIES_ETAG = "W/\"categories-" + Integer.toHexString(ChatService.CATEGORIES.hashCode()) + "\"";
+
     private final ChatService chatService;
+    private final ExportJobService exportJobService;
+    private final MessageSearchService messageSearchService;
+    private final SessionChangeFeed sessionChangeFeed;
 
     @PostMapping("/message")
     public ResponseEntity<ChatResponse> sendMessage(
@@ -32,31 +60,93 @@ public class ChatController {
     }
 
     @GetMapping("/sessions")
-    public ResponseEntity<List<ChatSession>> getUserSessions(Authentication authentication) {
-        List<ChatSession> sessions = chatService.getUserSessions(authentication.getName());
-        return ResponseEntity.ok(sessions);
+    public ResponseEntity<List<ChatSessionSummary>> getUserSessions(Authentication authentication, WebRequest webRequest) {
+        String etag = chatService.getSessionListVersion(authentication.getName());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<ChatSessionSummary> sessions = chatService.getUserSessions(authentication.getName());
+        return revalidated(etag).body(sessions);
+    }
+
+    /**
+     * Sidebar delta sync: sessions created, updated or deleted since {@code cursor}. Without a
+     * cursor, or with one too old to be answered, returns the full list with {@code reset} set.
+     */
+    @GetMapping("/sessions/changes")
+    public ResponseEntity<SessionChanges> getSessionChanges(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor
+    ) {
+        return ResponseEntity.ok(sessionChangeFeed.getChanges(authentication.getName(), cursor));
     }
 
     @GetMapping("/history")
-    public ResponseEntity<Page<ChatSession>> getChatHistory(
+    public ResponseEntity<Page<ChatSessionSummary>> getChatHistory(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest
     ) {
-        Page<ChatSession> history = chatService.getChatHistory(
+        String etag = chatService.getSessionListVersion(authentication.getName());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Page<ChatSessionSummary> history = chatService.getChatHistory(
                 authentication.getName(),
                 PageRequest.of(page, size)
         );
+        return revalidated(etag).body(history);
+    }
+
+    @GetMapping("/history/cursor")
+    public ResponseEntity<CursorPage<ChatSessionSummary>> getChatHistoryPage(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        CursorPage<ChatSessionSummary> history = chatService.getChatHistoryPage(
+                authentication.getName(), cursor, size, includeTotal);
         return ResponseEntity.ok(history);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<Page<MessageSearchHit>> searchMessages(
+            Authentication authentication,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Page<MessageSearchHit> hits = messageSearchService.search(
+                authentication.getName(), q, Math.max(page, 0), CursorPage.clampSize(size));
+        return ResponseEntity.ok(hits);
+    }
+
     @GetMapping("/session/{sessionId}")
     public ResponseEntity<ChatSession> getChatSession(
             Authentication authentication,
-            @PathVariable Long sessionId
+            @PathVariable Long sessionId,
+            WebRequest webRequest
     ) {
+        String etag = chatService.getChatSessionVersion(authentication.getName(), sessionId);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
         ChatSession session = chatService.getChatSession(authentication.getName(), sessionId);
-        return ResponseEntity.ok(session);
+        return etag != null ? revalidated(etag).body(session) : ResponseEntity.ok(session);
+    }
+
+    @GetMapping("/session/{sessionId}/messages")
+    public ResponseEntity<MessageWindow> getSessionMessages(
+            Authentication authentication,
+            @PathVariable Long sessionId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "30") int limit
+    ) {
+        MessageWindow window = chatService.getMessageWindow(authentication.getName(), sessionId, before, after, limit);
+        return ResponseEntity.ok(window);
     }
 
     @DeleteMapping("/session/{sessionId}")
@@ -80,35 +170,37 @@ public class ChatController {
         return ResponseEntity.ok(Map.of("message", "Feedback submitted successfully"));
     }
 
+    @GetMapping("/usage")
+    public ResponseEntity<Map<String, Object>> getTokenUsage(Authentication authentication) {
+        return ResponseEntity.ok(chatService.getTokenUsage(authentication.getName()));
+    }
+
     @GetMapping("/suggestions")
     public ResponseEntity<List<String>> getSuggestedQuestions(
             @RequestParam(required = false) String category
     ) {
+        // Computed in memory, so the ETag is a hash of the result; it still saves the transfer
         List<String> suggestions = chatService.getSuggestedQuestions(category);
-        return ResponseEntity.ok(suggestions);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag("W/\"suggestions-" + Integer.toHexString(suggestions.hashCode()) + "\"")
+                .body(suggestions);
     }
 
     @GetMapping("/categories")
     public ResponseEntity<List<String>> getCategories() {
-        List<String> categories = List.of(
-                "Admissions",
-                "Courses",
-                "Fees",
-                "Placements",
-                "Campus Life",
-                "Faculty",
-                "Events",
-                "Facilities"
-        );
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(CATEGORIES_ETAG)
+                .body(ChatService.CATEGORIES);
     }
 
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportChatHistory(
+    public ResponseEntity<StreamingResponseBody> exportChatHistory(
             Authentication authentication,
             @RequestParam(defaultValue = "pdf") String format
     ) {
-        byte[] exportData = chatService.exportChatHistory(authentication.getName(), format);
+        StreamingResponseBody exportData = chatService.exportChatHistory(authentication.getName(), format);
         
         String contentType;
         String filename;
@@ -117,7 +209,7 @@ public class ChatController {
             contentType = "application/pdf";
             filename = "chat-history.pdf";
         } else {
-            contentType = "text/csv";
+            contentType = "text/csv; charset=UTF-8";
             filename = "chat-history.csv";
         }
         
@@ -128,12 +220,12 @@ public class ChatController {
     }
 
     @GetMapping("/session/{sessionId}/export")
-    public ResponseEntity<byte[]> exportSingleSession(
+    public ResponseEntity<StreamingResponseBody> exportSingleSession(
             Authentication authentication,
             @PathVariable Long sessionId,
             @RequestParam(defaultValue = "pdf") String format
     ) {
-        byte[] exportData = chatService.exportSingleSession(authentication.getName(), sessionId, format);
+        StreamingResponseBody exportData = chatService.exportSingleSession(authentication.getName(), sessionId, format);
         
         String contentType;
         String filename;
@@ -142,7 +234,7 @@ public class ChatController {
             contentType = "application/pdf";
             filename = "conversation-" + sessionId + ".pdf";
         } else {
-            contentType = "text/csv";
+            contentType = "text/csv; charset=UTF-8";
             filename = "conversation-" + sessionId + ".csv";
         }
         
@@ -151,4 +243,48 @@ public class ChatController {
                 .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
                 .body(exportData);
     }
+
+    @PostMapping("/export/jobs")
+    public ResponseEntity<ExportJobStatus> submitExportJob(
+            Authentication authentication,
+            @RequestBody Map<String, Object> request
+    ) {
+        String format = request.getOrDefault("format", "pdf").toString();
+        Long sessionId = request.get("sessionId") != null ? Long.valueOf(request.get("sessionId").toString()) : null;
+        
+        ExportJobStatus job = exportJobService.submit(authentication.getName(), sessionId, format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/export/jobs/{jobId}")
+    public ResponseEntity<ExportJobStatus> getExportJob(
+            Authentication authentication,
+            @PathVariable String jobId
+    ) {
+        return ResponseEntity.ok(exportJobService.getStatus(authentication.getName(), jobId));
+    }
+
+    @GetMapping("/export/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadExportJob(
+            Authentication authentication,
+            @PathVariable String jobId
+    ) {
+        Resource artifact = exportJobService.getArtifact(authentication.getName(), jobId);
+        String filename = exportJobService.getFilename(authentication.getName(), jobId);
+        String contentType = filename.endsWith(".pdf") ? "application/pdf" : "text/csv; charset=UTF-8";
+        
+        // Resource bodies get Range/206 handling from Spring MVC
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
+                .header("Accept-Ranges", "bytes")
+                .body(artifact);
+    }
+
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .eTag(etag);
+    }
 }
@@ -0,0 +1,35 @@
+package com.campusconnect.controller;
+
+import com.campusconnect.dto.FaqItem;
+import com.campusconnect.service.FaqService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/faq")
+@RequiredArgsConstructor
+public class FaqController {
+
+    private final FaqService faqService;
+
+    @GetMapping
+    public ResponseEntity<List<FaqItem>> getFaqs(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "popular") String sort
+    ) {
+        return ResponseEntity.ok(faqService.getFaqs(category, !"default".equalsIgnoreCase(sort)));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<String>> getCategories() {
+        return ResponseEntity.ok(faqService.getCategories());
+    }
+
+    @GetMapping("/{faqId}")
+    public ResponseEntity<FaqItem> getFaq(@PathVariable Long faqId) {
+        return ResponseEntity.ok(faqService.viewFaq(faqId));
+    }
+}
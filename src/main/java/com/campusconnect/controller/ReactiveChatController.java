@@ -0,0 +1,41 @@
+package com.campusconnect.controller;
+
+import com.campusconnect.dto.ChatRequest;
+import com.campusconnect.dto.ChatResponse;
+import com.campusconnect.dto.ChatStreamEvent;
+import com.campusconnect.service.ChatService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/chat/reactive")
+@RequiredArgsConstructor
+public class ReactiveChatController {
+
+    private final ChatService chatService;
+
+    @PostMapping("/message")
+    public Mono<ChatResponse> sendMessage(
+            Authentication authentication,
+            @Valid @RequestBody ChatRequest request
+    ) {
+        return chatService.sendMessageReactive(authentication.getName(), request);
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChatStreamEvent>> streamMessage(
+            Authentication authentication,
+            @Valid @RequestBody ChatRequest request
+    ) {
+        return chatService.streamMessage(authentication.getName(), request)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType())
+                        .build());
+    }
+}
@@ -1,5 +1,6 @@
 package com.campusconnect.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
@@ -12,4 +13,8 @@ public class ChatRequest {
     private Long sessionId;
     
     private String category;
+
+    // Set server-side when the category was inferred rather than chosen by the user
+    @JsonIgnore
+    private boolean categoryInferred;
 }
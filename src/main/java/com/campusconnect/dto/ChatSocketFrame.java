@@ -0,0 +1,42 @@
+package com.campusconnect.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A server-to-client frame on {@code /ws/chat}. {@code id} echoes the client's turn id so
+ * tokens of concurrent turns can be told apart; unused fields are omitted from the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChatSocketFrame(
+        String type,
+        String id,
+        String delta,
+        ChatResponse response,
+        Integer status,
+        String message
+) {
+
+    public static ChatSocketFrame token(String id, String delta) {
+        return new ChatSocketFrame("token", id, delta, null, null, null);
+    }
+
+    public static ChatSocketFrame done(String id, ChatResponse response) {
+        return new ChatSocketFrame("done", id, null, response, null, null);
+    }
+
+    /**
+     * The answer broke off upstream after some tokens were sent; {@code response} is the
+     * partial answer as saved.
+     */
+    public static ChatSocketFrame interrupted(String id, ChatResponse response) {
+        return new ChatSocketFrame("error", id, null, response, 502, "The answer was interrupted");
+    }
+
+    public static ChatSocketFrame error(String id, int status, String message) {
+        return new ChatSocketFrame("error", id, null, null, status, message);
+    }
+
+    public static ChatSocketFrame pong() {
+        return new ChatSocketFrame("pong", null, null, null, null, null);
+    }
+}
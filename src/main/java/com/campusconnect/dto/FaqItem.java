@@ -0,0 +1,17 @@
+package com.campusconnect.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A published FAQ as served by the public API; {@code viewCount} includes views not yet
+ * flushed to the database.
+ */
+public record FaqItem(
+        Long id,
+        String question,
+        String answer,
+        String category,
+        long viewCount,
+        LocalDateTime updatedAt
+) {
+}
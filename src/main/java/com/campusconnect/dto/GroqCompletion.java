@@ -0,0 +1,47 @@
+package com.campusconnect.dto;
+
+/**
+ * An answer from Groq together with what it cost: the prompt build and upstream wait times,
+ * the model that served it and the token usage Groq reported. Answers from the local intent
+ * router ({@link #LOCAL}) or the answer cache ({@link #CACHE}) cost nothing.
+ */
+public record GroqCompletion(
+        String content,
+        String outcome,
+        String model,
+        Integer promptTokens,
+        Integer completionTokens,
+        long promptBuildMs,
+        long llmWaitMs,
+        Long firstTokenMs
+) {
+
+    public static final String OK = "ok";
+    public static final String BUSY = "busy";
+    public static final String CLIENT_ERROR = "client_error";
+    public static final String SERVER_ERROR = "server_error";
+    public static final String TIMEOUT = "timeout";
+    public static final String ERROR = "error";
+    public static final String CANCELLED = "cancelled";
+    public static final String LOCAL = "local";
+    public static final String CACHE = "cache";
+
+    public static GroqCompletion unanswered(String content, String outcome, long promptBuildMs, long llmWaitMs) {
+        return new GroqCompletion(content, outcome, null, null, null, promptBuildMs, llmWaitMs, null);
+    }
+
+    public static GroqCompletion local(String content) {
+        return new GroqCompletion(content, LOCAL, null, null, null, 0, 0, null);
+    }
+
+    public static GroqCompletion cached(String content) {
+        return new GroqCompletion(content, CACHE, null, null, null, 0, 0, null);
+    }
+
+    /**
+     * Whether a turn with this outcome was answered without calling Groq.
+     */
+    public static boolean servedLocally(String outcome) {
+        return LOCAL.equals(outcome) || CACHE.equals(outcome);
+    }
+}
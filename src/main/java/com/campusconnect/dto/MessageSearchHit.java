@@ -0,0 +1,24 @@
+package com.campusconnect.dto;
+
+import com.campusconnect.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchHit {
+    
+    private Long messageId;
+    private Long sessionId;
+    private String sessionTitle;
+    private Message.Role role;
+    private LocalDateTime timestamp;
+    private double score;
+    private String snippet;
+    private List<int[]> highlights; // [start, end) character offsets into snippet
+}
@@ -0,0 +1,16 @@
+package com.campusconnect.dto;
+
+import java.util.List;
+
+/**
+ * Sidebar changes since the client's cursor: sessions created or updated, ids of sessions
+ * deleted, and the cursor to send next time. With {@code reset} set, {@code sessions} is the
+ * full list and the client replaces its copy instead of merging.
+ */
+public record SessionChanges(
+        String cursor,
+        boolean reset,
+        List<ChatSessionSummary> sessions,
+        List<Long> deleted
+) {
+}
@@ -0,0 +1,10 @@
+package com.campusconnect.event;
+
+public record FaqChangedEvent(Type type, Long faqId) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
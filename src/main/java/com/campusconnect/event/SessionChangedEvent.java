@@ -0,0 +1,16 @@
+package com.campusconnect.event;
+
+import com.campusconnect.model.ChatSession;
+
+public record SessionChangedEvent(Type type, Long sessionId, Long userId, int messageCount) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static SessionChangedEvent of(Type type, ChatSession session, Long userId) {
+        return new SessionChangedEvent(type, session.getId(), userId, session.getMessageCount());
+    }
+}
@@ -0,0 +1,17 @@
+package com.campusconnect.exception;
+
+import lombok.Getter;
+
+/**
+ * Shared capacity is exhausted; answered with 503 and a Retry-After hint.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.campusconnect.exception;
+
+import lombok.Getter;
+
+/**
+ * The caller has too much work in flight; answered with 429 and a Retry-After hint.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,47 @@
+package com.campusconnect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "analytics_buckets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_analytics_bucket", columnNames = {"granularity", "bucket_start", "category", "role", "feedback"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Empty string instead of NULL so the unique key can drive ON DUPLICATE KEY upserts
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Column(nullable = false, length = 16)
+    private String role;
+
+    @Column(nullable = false, length = 16)
+    private String feedback;
+
+    @Column(nullable = false)
+    private Long messageCount;
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+}
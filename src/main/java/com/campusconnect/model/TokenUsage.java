@@ -0,0 +1,39 @@
+package com.campusconnect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "token_usage", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_token_usage_user_day", columnNames = {"user_id", "usage_date"})
+}, indexes = {
+        @Index(name = "idx_token_usage_day", columnList = "usage_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate usageDate;
+
+    @Column(nullable = false)
+    private Long promptTokens;
+
+    @Column(nullable = false)
+    private Long completionTokens;
+
+    @Column(nullable = false)
+    private Long requests;
+}
@@ -0,0 +1,41 @@
+package com.campusconnect.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Phase timings and token usage of the chat turn that produced an assistant message.
+ * All columns are null on user messages.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TurnMetrics {
+
+    private Long dbReadMs;
+
+    private Long promptBuildMs;
+
+    private Long llmWaitMs;
+
+    // Only set for streamed answers
+    private Long firstTokenMs;
+
+    private Long dbWriteMs;
+
+    private Long totalMs;
+
+    private Integer promptTokens;
+
+    private Integer completionTokens;
+
+    @Column(name = "llm_model", length = 64)
+    private String model;
+
+    @Column(name = "llm_outcome", length = 16)
+    private String outcome;
+}
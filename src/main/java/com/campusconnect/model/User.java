@@ -47,6 +47,11 @@ public class User {
 
     private Boolean emailVerified = false;
 
+    // Last change version handed to one of the user's sessions; only written by SessionChangeFeed
+    @JsonIgnore
+    @Column(updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long sessionVersion = 0L;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,30 @@
+package com.campusconnect.repository;
+
+import com.campusconnect.model.AnalyticsBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AnalyticsBucketRepository extends JpaRepository<AnalyticsBucket, Long> {
+    
+    @Modifying
+    @Query(value = "INSERT INTO analytics_buckets (granularity, bucket_start, category, role, feedback, message_count) " +
+                   "VALUES (:granularity, :bucketStart, :category, :role, :feedback, :delta) " +
+                   "ON DUPLICATE KEY UPDATE message_count = message_count + :delta", nativeQuery = true)
+    int addToBucket(String granularity, LocalDateTime bucketStart, String category, String role, String feedback, long delta);
+    
+    @Query("SELECT b.category, b.role, b.feedback, SUM(b.messageCount) FROM AnalyticsBucket b " +
+           "WHERE b.granularity = :granularity AND b.bucketStart >= :start AND b.bucketStart < :end " +
+           "GROUP BY b.category, b.role, b.feedback")
+    List<Object[]> sumByDimensions(AnalyticsBucket.Granularity granularity, LocalDateTime start, LocalDateTime end);
+    
+    @Query("SELECT b.bucketStart, SUM(b.messageCount) FROM AnalyticsBucket b " +
+           "WHERE b.granularity = :granularity AND b.bucketStart >= :start AND b.bucketStart < :end " +
+           "GROUP BY b.bucketStart ORDER BY b.bucketStart")
+    List<Object[]> sumByBucket(AnalyticsBucket.Granularity granularity, LocalDateTime start, LocalDateTime end);
+}
@@ -1,22 +1,84 @@
 package com.campusconnect.repository;
 
+import com.campusconnect.dto.ChatSessionSummary;
 import com.campusconnect.model.ChatSession;
 import com.campusconnect.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatSessionRepository extends JpaRepository<ChatSession, Long> {
     
-    List<ChatSession> findByUserOrderByUpdatedAtDesc(User user);
+    List<ChatSession> findByUserOrderByUpdatedAtDescIdDesc(User user);
     
-    Page<ChatSession> findByUser(User user, Pageable pageable);
+    // Sidebar read model: narrow columns only, served by idx_chat_sessions_user_updated
+    @Query("SELECT new com.campusconnect.dto.ChatSessionSummary(" +
+           "s.id, s.title, s.category, s.messageCount, s.updatedAt, SUBSTRING(s.lastMessage, 1, " + ChatSessionSummary.PREVIEW_LENGTH + ")) " +
+           "FROM ChatSession s JOIN s.user u WHERE u.email = :email ORDER BY s.updatedAt DESC, s.id DESC")
+    List<ChatSessionSummary> findSummariesByUserEmail(String email);
+    
+    @Query(value = "SELECT new com.campusconnect.dto.ChatSessionSummary(" +
+                   "s.id, s.title, s.category, s.messageCount, s.updatedAt, SUBSTRING(s.lastMessage, 1, " + ChatSessionSummary.PREVIEW_LENGTH + ")) " +
+                   "FROM ChatSession s JOIN s.user u WHERE u.email = :email ORDER BY s.updatedAt DESC, s.id DESC",
+           countQuery = "SELECT COUNT(s) FROM ChatSession s JOIN s.user u WHERE u.email = :email")
+    Page<ChatSessionSummary> findSummariesByUserEmail(String email, Pageable pageable);
+    
+    // Keyset continuation over (updatedAt, id): every page is an index seek, no OFFSET scan
+    @Query("SELECT new com.campusconnect.dto.ChatSessionSummary(" +
+           "s.id, s.title, s.category, s.messageCount, s.updatedAt, SUBSTRING(s.lastMessage, 1, " + ChatSessionSummary.PREVIEW_LENGTH + ")) " +
+           "FROM ChatSession s JOIN s.user u WHERE u.email = :email " +
+           "AND (s.updatedAt < :updatedAt OR (s.updatedAt = :updatedAt AND s.id < :id)) " +
+           "ORDER BY s.updatedAt DESC, s.id DESC")
+    List<ChatSessionSummary> findSummariesByUserEmailBefore(String email, LocalDateTime updatedAt, Long id, Limit limit);
+    
+    @Query("SELECT new com.campusconnect.dto.ChatSessionSummary(" +
+           "s.id, s.title, s.category, s.messageCount, s.updatedAt, SUBSTRING(s.lastMessage, 1, " + ChatSessionSummary.PREVIEW_LENGTH + ")) " +
+           "FROM ChatSession s JOIN s.user u WHERE u.email = :email ORDER BY s.updatedAt DESC, s.id DESC")
+    List<ChatSessionSummary> findSummariesByUserEmail(String email, Limit limit);
+    
+    @Query("SELECT COUNT(s) FROM ChatSession s JOIN s.user u WHERE u.email = :email")
+    long countByUserEmail(String email);
+    
+    // Change feed: sessions touched after the client's version, served by idx_chat_sessions_user_version
+    @Query("SELECT new com.campusconnect.dto.ChatSessionSummary(" +
+           "s.id, s.title, s.category, s.messageCount, s.updatedAt, SUBSTRING(s.lastMessage, 1, " + ChatSessionSummary.PREVIEW_LENGTH + ")) " +
+           "FROM ChatSession s WHERE s.user.id = :userId AND s.changeVersion > :version ORDER BY s.updatedAt DESC, s.id DESC")
+    List<ChatSessionSummary> findSummariesChangedAfter(Long userId, long version);
+    
+    @Modifying
+    @Query(value = "UPDATE chat_sessions SET change_version = :version WHERE id = :id", nativeQuery = true)
+    int setChangeVersion(Long id, long version);
+    
+    @EntityGraph(attributePaths = {"user", "messages"})
+    Optional<ChatSession> findWithMessagesById(Long id);
     
     Page<ChatSession> findByUserAndCategory(User user, String category, Pageable pageable);
     
     Long countByUser(User user);
+    
+    boolean existsByIdAndUserEmail(Long id, String email);
+    
+    @Query("SELECT MAX(s.updatedAt), COUNT(s) FROM ChatSession s WHERE s.user = :user")
+    List<Object[]> findExportVersion(User user);
+
+    // Validator for the sidebar lists: an index-only aggregate instead of the rows themselves
+    @Query("SELECT MAX(s.updatedAt), COUNT(s), COALESCE(SUM(s.messageCount), 0) " +
+           "FROM ChatSession s JOIN s.user u WHERE u.email = :email")
+    List<Object[]> findListVersionByUserEmail(String email);
+
+    // Validator for one session: messages are only ever appended, and feedback bumps the change version
+    @Query("SELECT s.changeVersion, COUNT(m), COALESCE(MAX(m.id), 0L) " +
+           "FROM ChatSession s JOIN s.user u LEFT JOIN s.messages m " +
+           "WHERE s.id = :id AND u.email = :email GROUP BY s.id, s.changeVersion")
+    List<Object[]> findVersionByIdAndUserEmail(Long id, String email);
 }
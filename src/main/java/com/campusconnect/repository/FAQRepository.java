@@ -1,9 +1,12 @@
 package com.campusconnect.repository;
 
 import com.campusconnect.model.FAQ;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -18,4 +21,14 @@ public interface FAQRepository extends JpaRepository<FAQ, Long> {
     List<FAQ> findByCategoryAndActiveOrderByViewCountDesc(String category, Boolean active);
     
     List<FAQ> findByActiveOrderByViewCountDesc(Boolean active);
+    
+    List<FAQ> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    List<FAQ> findByCategoryAndIdGreaterThanOrderByIdAsc(String category, Long id, Limit limit);
+    
+    long countByCategory(String category);
+    
+    @Modifying
+    @Query(value = "UPDATE faq SET view_count = COALESCE(view_count, 0) + :delta WHERE id = :id", nativeQuery = true)
+    int addViews(Long id, long delta);
 }
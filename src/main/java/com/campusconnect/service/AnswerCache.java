@@ -0,0 +1,380 @@
+package com.campusconnect.service;
+
+import com.campusconnect.event.FeedbackChangedEvent;
+import com.campusconnect.model.Message;
+import com.campusconnect.repository.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Near-duplicate answer cache for first-turn questions. Questions are reduced to a set of
+ * normalized words, and MinHash signatures banded into LSH buckets find earlier questions
+ * in the same category that are likely similar. A candidate is served only if its exact
+ * Jaccard similarity reaches {@code answer-cache.similarity} and both questions agree on every
+ * word that changes the answer: negations, numbers, years and branch or programme names, so
+ * "is hostel not available" never gets the answer to "is hostel available". Entries expire after a TTL and
+ * are evicted least recently used beyond {@code answer-cache.max-entries}. An answer that
+ * receives negative feedback is dropped, along with every other entry holding the same text.
+ * Answers are also written to the {@link AnswerStore}, which keeps them across restarts and
+ * beyond the in-memory limit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnswerCache {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int MIN_WORDS = 2;
+    private static final String NEGATIVE = "negative";
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "is", "are", "was", "be", "to", "of", "in", "on", "at", "for", "and", "or",
+            "what", "whats", "which", "how", "much", "many", "do", "does", "can", "could", "i", "me", "my",
+            "you", "your", "we", "our", "it", "its", "this", "that", "there", "any", "about", "please",
+            "tell", "know", "want", "per", "iare", "college", "institute", "give", "get", "some", "s");
+
+    // Words one question cannot have without the other, however similar the rest is
+    private static final Set<String> MUST_MATCH = Set.of(
+            "not", "no", "never", "without", "nor", "neither", "except", "dont", "doesnt", "didnt",
+            "isnt", "arent", "wasnt", "cant", "cannot", "wont", "shouldnt", "havent", "hasnt",
+            "first", "second", "third", "fourth", "final", "last", "next", "one", "two", "three", "four",
+            "btech", "mtech", "mba", "mca", "phd", "diploma", "cse", "ece", "eee", "mech", "civil",
+            "aero", "aeronautical", "aiml", "ds", "csm", "csd", "lateral", "nri", "management");
+
+    private static final long[] SEEDS = new long[BANDS * ROWS];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SEEDS.length; i++) {
+            seed = mix(seed + i);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private final MessageRepository messageRepository;
+    private final AnswerStore answerStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${answer-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${answer-cache.similarity:0.6}")
+    private double similarity;
+
+    @Value("${answer-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${answer-cache.ttl.hours:24}")
+    private long ttlHours;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private long nextId;
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        hits = meterRegistry.counter("cache.gets", "cache", "answer", "result", "hit");
+        misses = meterRegistry.counter("cache.gets", "cache", "answer", "result", "miss");
+        Gauge.builder("cache.size", this, AnswerCache::size)
+                .tag("cache", "answer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached answer to a question close enough to this one in the same category.
+     */
+    public Optional<String> lookup(String category, String question) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String[] words = words(question);
+        if (words.length < MIN_WORDS) {
+            return Optional.empty();
+        }
+        long[] bandKeys = bandKeys(categoryKey(category), signature(words));
+        long now = System.currentTimeMillis();
+
+        Entry best = null;
+        double bestSimilarity = 0;
+        List<Entry> expired = new ArrayList<>();
+        synchronized (this) {
+            Set<Long> candidates = new HashSet<>();
+            for (long bandKey : bandKeys) {
+                Set<Long> bucket = buckets.get(bandKey);
+                if (bucket != null) {
+                    candidates.addAll(bucket);
+                }
+            }
+            for (Long id : candidates) {
+                Entry entry = entries.get(id);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.expiresAt() < now) {
+                    expired.add(entry);
+                    continue;
+                }
+                double score = similarity(words, entry.words());
+                if (score >= similarity && score > bestSimilarity) {
+                    best = entry;
+                    bestSimilarity = score;
+                }
+            }
+            for (Entry entry : expired) {
+                entries.remove(entry.id());
+                unbucket(entry);
+            }
+            if (best != null) {
+                // Access order: counts as a use for LRU eviction
+                entries.get(best.id());
+            }
+        }
+
+        if (best != null) {
+            hits.increment();
+            return Optional.of(best.answer());
+        }
+
+        // Evicted from memory but still persisted: only the exact same word set is found there
+        String categoryKey = categoryKey(category);
+        Optional<AnswerStore.StoredAnswer> stored = answerStore.get(fingerprint(categoryKey, words));
+        if (stored.isPresent()) {
+            insert(categoryKey, words, stored.get().answer(), stored.get().expiresAt());
+            hits.increment();
+            return Optional.of(stored.get().answer());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String category, String question, String answer) {
+        if (!enabled || answer == null || answer.isEmpty()) {
+            return;
+        }
+        String[] words = words(question);
+        if (words.length < MIN_WORDS) {
+            return;
+        }
+        String categoryKey = categoryKey(category);
+        long expiresAt = System.currentTimeMillis() + Duration.ofHours(ttlHours).toMillis();
+        insert(categoryKey, words, answer, expiresAt);
+        answerStore.put(fingerprint(categoryKey, words), categoryKey, String.join(" ", words), answer, expiresAt);
+    }
+
+    /**
+     * Loads the most recent answers persisted by earlier runs, so a fresh instance starts warm.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        answerStore.forEachRecent(maxEntries, stored ->
+                insert(stored.category(), stored.question().split(" "), stored.answer(), stored.expiresAt()));
+        log.info("Answer cache warmed with {} answers in {} ms", size(), System.currentTimeMillis() - started);
+    }
+
+    private void insert(String categoryKey, String[] words, String answer, long expiresAt) {
+        long[] bandKeys = bandKeys(categoryKey, signature(words));
+        synchronized (this) {
+            Entry entry = new Entry(nextId++, words, bandKeys, answer, expiresAt);
+            entries.put(entry.id(), entry);
+            for (long bandKey : bandKeys) {
+                buckets.computeIfAbsent(bandKey, key -> new HashSet<>(2)).add(entry.id());
+            }
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                unbucket(evicted);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedbackChanged(FeedbackChangedEvent event) {
+        if (event.role() != Message.Role.ASSISTANT || !NEGATIVE.equalsIgnoreCase(event.feedback())) {
+            return;
+        }
+        messageRepository.findById(event.messageId()).ifPresent(message -> {
+            int removed = invalidate(message.getContent());
+            if (removed > 0) {
+                log.debug("Dropped {} cached answers after negative feedback on message {}", removed, event.messageId());
+            }
+        });
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        buckets.clear();
+        answerStore.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized int invalidate(String answer) {
+        List<Entry> matching = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.answer().equals(answer)) {
+                matching.add(entry);
+            }
+        }
+        for (Entry entry : matching) {
+            entries.remove(entry.id());
+            unbucket(entry);
+        }
+        return matching.size() + answerStore.removeByAnswer(answer);
+    }
+
+    private void unbucket(Entry entry) {
+        for (long bandKey : entry.bandKeys()) {
+            Set<Long> bucket = buckets.get(bandKey);
+            if (bucket != null && bucket.remove(entry.id()) && bucket.isEmpty()) {
+                buckets.remove(bandKey);
+            }
+        }
+    }
+
+    /**
+     * Sorted distinct content words. Apostrophes are dropped ("what's" becomes "whats"), a
+     * single letter is joined to the next word ("b tech" becomes "btech") and a plural "s" is
+     * stripped.
+     */
+    private static String[] words(String question) {
+        Set<String> words = new TreeSet<>();
+        if (question == null) {
+            return new String[0];
+        }
+        String[] raw = question.toLowerCase(Locale.ROOT).replace("'", "").replace("’", "").split("[^\\p{L}\\p{N}]+");
+        for (int i = 0; i < raw.length; i++) {
+            String word = raw[i];
+            if (word.length() == 1 && Character.isLetter(word.charAt(0)) && i + 1 < raw.length && !raw[i + 1].isEmpty()) {
+                word = word + raw[++i];
+            }
+            if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+                word = word.substring(0, word.length() - 1);
+            }
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static long[] signature(String[] words) {
+        long[] signature = new long[SEEDS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String word : words) {
+            long hash = word.hashCode() * 0xC2B2AE3D27D4EB4FL;
+            for (int i = 0; i < SEEDS.length; i++) {
+                signature[i] = Math.min(signature[i], mix(hash ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    // Band keys include the category, so buckets never mix categories
+    private static long[] bandKeys(String category, long[] signature) {
+        long[] keys = new long[BANDS];
+        long categoryHash = mix(category.hashCode());
+        for (int band = 0; band < BANDS; band++) {
+            long key = categoryHash + band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /**
+     * Jaccard similarity of the word sets, or 0 when a must-match word is in only one of them.
+     */
+    private static double similarity(String[] a, String[] b) {
+        // Both sorted: count the intersection in one merge pass
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length || j < b.length) {
+            int cmp = i == a.length ? 1 : j == b.length ? -1 : a[i].compareTo(b[j]);
+            if (cmp == 0) {
+                common++;
+                i++;
+                j++;
+            } else if (cmp < 0) {
+                if (mustMatch(a[i++])) {
+                    return 0;
+                }
+            } else if (mustMatch(b[j++])) {
+                return 0;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    private static boolean mustMatch(String word) {
+        if (MUST_MATCH.contains(word)) {
+            return true;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Never 0, which the store reserves for empty slots
+    private static long fingerprint(String categoryKey, String[] words) {
+        long hash = mix(categoryKey.hashCode());
+        for (String word : words) {
+            hash = mix(hash * 31 + word.hashCode());
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    private static String categoryKey(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Entry(long id, String[] words, long[] bandKeys, String answer, long expiresAt) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.campusconnect.service;
 
 import com.campusconnect.dto.*;
+import com.campusconnect.event.UserChangedEvent;
 import com.campusconnect.model.RefreshToken;
 import com.campusconnect.model.User;
 import com.campusconnect.repository.RefreshTokenRepository;
@@ -8,6 +9,7 @@ import com.campusconnect.repository.UserRepository;
 import com.campusconnect.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,6 +31,7 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${jwt.refresh.expiration}")
     private Long refreshTokenExpiration;
@@ -50,6 +53,7 @@ public class AuthService {
         user.setEmailVerified(false);
 
         user = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.registered(user));
 
         // Generate tokens
         UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
@@ -158,6 +162,7 @@ public class AuthService {
         }
 
         user = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(user, user.getActive()));
         return UserDTO.fromUser(user);
     }
 
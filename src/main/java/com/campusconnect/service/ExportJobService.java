@@ -0,0 +1,396 @@
+package com.campusconnect.service;
+
+import com.campusconnect.config.ExecutionLane;
+import com.campusconnect.dto.ExportJobStatus;
+import com.campusconnect.exception.ServiceBusyException;
+import com.campusconnect.exception.TooManyRequestsException;
+import com.campusconnect.model.ChatSession;
+import com.campusconnect.model.User;
+import com.campusconnect.repository.ChatSessionRepository;
+import com.campusconnect.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Renders exports on a bounded worker pool into spool files and keeps finished files as a
+ * cache keyed by user, session and the data's last update, so repeat downloads skip rendering.
+ * Identical requests share one in-flight job, and each user may have at most
+ * {@code export.jobs.max-per-user} jobs queued or rendering so no one can fill the shared queue.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobService {
+
+    private static final String SPOOL_PREFIX = "export-";
+
+    private final ChatService chatService;
+    private final UserRepository userRepository;
+    private final ChatSessionRepository chatSessionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${export.jobs.workers:2}")
+    private int workers;
+
+    @Value("${export.jobs.queue:50}")
+    private int queueCapacity;
+
+    @Value("${export.jobs.max-per-user:3}")
+    private int maxJobsPerUser;
+
+    @Value("${export.spool.dir:${java.io.tmpdir}/campusconnect-exports}")
+    private String spoolDir;
+
+    @Value("${export.cache.max.bytes:536870912}")
+    private long cacheMaxBytes;
+
+    @Value("${export.cache.max.age.minutes:60}")
+    private long cacheMaxAgeMinutes;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, CachedArtifact> artifacts = new ConcurrentHashMap<>();
+    // cacheKey -> the queued or rendering job for it
+    private final Map<String, ExportJob> inFlight = new ConcurrentHashMap<>();
+    // userId -> queued or rendering jobs
+    private final Map<Long, Integer> activeByUser = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private Path spoolPath;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    void init() throws IOException {
+        spoolPath = Files.createDirectories(Paths.get(spoolDir));
+        purgeSpool();
+        cacheHits = meterRegistry.counter("cache.gets", "cache", "export", "result", "hit");
+        cacheMisses = meterRegistry.counter("cache.gets", "cache", "export", "result", "miss");
+
+        // Rendering reads through the export lane's connection share
+        executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ExecutionLane.threadFactory(ExecutionLane.EXPORT, "export-worker", true),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ExportJobStatus submit(String email, Long sessionId, String format) {
+        boolean pdf = isPdfFormat(format);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        String cacheKey = buildCacheKey(user, sessionId, pdf);
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), user.getId(), sessionId, pdf ? "pdf" : "csv", cacheKey);
+
+        CachedArtifact cached = artifacts.get(cacheKey);
+        if (cached != null && Files.exists(cached.path())) {
+            cacheHits.increment();
+            job.complete(cached);
+            jobs.put(job.id, job);
+            return toStatus(job);
+        }
+
+        // Identical export already queued or rendering: hand back that job instead of rendering twice
+        return toStatus(inFlight.computeIfAbsent(cacheKey, key -> enqueue(job)));
+    }
+
+    public ExportJobStatus getStatus(String email, String jobId) {
+        return toStatus(findOwnedJob(email, jobId));
+    }
+
+    public Resource getArtifact(String email, String jobId) {
+        ExportJob job = findOwnedJob(email, jobId);
+        if (job.status != Status.COMPLETED) {
+            throw new RuntimeException("Export is not ready yet");
+        }
+
+        CachedArtifact artifact = artifacts.get(job.cacheKey);
+        if (artifact == null || !Files.exists(artifact.path())) {
+            throw new RuntimeException("Export has expired, please request it again");
+        }
+        artifact.touch();
+        return new FileSystemResource(artifact.path());
+    }
+
+    public String getFilename(String email, String jobId) {
+        ExportJob job = findOwnedJob(email, jobId);
+        String base = job.sessionId != null ? "conversation-" + job.sessionId : "chat-history";
+        return base + "." + job.format;
+    }
+
+    // Runs inside inFlight.computeIfAbsent, so a cache key is enqueued at most once
+    private ExportJob enqueue(ExportJob job) {
+        reserveSlot(job.userId);
+        cacheMisses.increment();
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            releaseSlot(job.userId);
+            throw new ServiceBusyException("Export queue is full, please try again later", 30);
+        }
+        return job;
+    }
+
+    private void reserveSlot(Long userId) {
+        activeByUser.compute(userId, (id, active) -> {
+            int current = active != null ? active : 0;
+            if (current >= maxJobsPerUser) {
+                throw new TooManyRequestsException("You already have " + current + " exports in progress, please wait for one to finish", 10);
+            }
+            return current + 1;
+        });
+    }
+
+    private void releaseSlot(Long userId) {
+        activeByUser.computeIfPresent(userId, (id, active) -> active > 1 ? active - 1 : null);
+    }
+
+    private void render(ExportJob job) {
+        job.status = Status.RUNNING;
+        Path file = null;
+        try {
+            User user = userRepository.findById(job.userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            file = Files.createTempFile(spoolPath, SPOOL_PREFIX, "." + job.format);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                if (job.sessionId != null) {
+                    ChatSession session = chatSessionRepository.findById(job.sessionId)
+                            .orElseThrow(() -> new RuntimeException("Session not found"));
+                    chatService.writeSingleSession(session, user, "pdf".equals(job.format), out);
+                } else {
+                    chatService.writeChatHistory(user, "pdf".equals(job.format), out);
+                }
+            }
+
+            CachedArtifact artifact = new CachedArtifact(file, Files.size(file), System.currentTimeMillis());
+            CachedArtifact previous = artifacts.put(job.cacheKey, artifact);
+            if (previous != null && !previous.path().equals(file)) {
+                deleteQuietly(previous.path());
+            }
+            job.complete(artifact);
+            log.debug("Export job {} rendered {} bytes", job.id, artifact.size());
+        } catch (Exception e) {
+            log.error("Export job {} failed", job.id, e);
+            if (file != null) {
+                deleteQuietly(file);
+            }
+            job.fail(e.getMessage());
+        } finally {
+            // After the artifact is cached, so a repeat request finds either the job or the file
+            inFlight.remove(job.cacheKey, job);
+            releaseSlot(job.userId);
+        }
+    }
+
+    // Spool files of a previous run are not in the artifact cache and would never be deleted
+    private void purgeSpool() throws IOException {
+        try (Stream<Path> files = Files.list(spoolPath)) {
+            files.filter(path -> path.getFileName().toString().startsWith(SPOOL_PREFIX))
+                    .forEach(this::deleteQuietly);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${export.cache.sweep.ms:60000}")
+    public void evictExpired() {
+        long maxAgeMillis = Duration.ofMinutes(cacheMaxAgeMinutes).toMillis();
+        long now = System.currentTimeMillis();
+
+        artifacts.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().createdAt() > maxAgeMillis) {
+                deleteQuietly(entry.getValue().path());
+                return true;
+            }
+            return false;
+        });
+
+        long totalBytes = artifacts.values().stream().mapToLong(CachedArtifact::size).sum();
+        if (totalBytes > cacheMaxBytes) {
+            List<Map.Entry<String, CachedArtifact>> byLastAccess = artifacts.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .toList();
+            for (Map.Entry<String, CachedArtifact> entry : byLastAccess) {
+                if (totalBytes <= cacheMaxBytes) {
+                    break;
+                }
+                if (artifacts.remove(entry.getKey(), entry.getValue())) {
+                    deleteQuietly(entry.getValue().path());
+                    totalBytes -= entry.getValue().size();
+                }
+            }
+        }
+
+        jobs.values().removeIf(job -> job.status != Status.QUEUED && job.status != Status.RUNNING
+                && now - job.createdAtMillis > maxAgeMillis);
+    }
+
+    private String buildCacheKey(User user, Long sessionId, boolean pdf) {
+        String version;
+        if (sessionId != null) {
+            ChatSession session = chatSessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new RuntimeException("Session not found"));
+            if (!session.getUser().getId().equals(user.getId())) {
+                throw new RuntimeException("Unauthorized access to session");
+            }
+            version = String.valueOf(session.getUpdatedAt());
+        } else {
+            // Latest update plus session count, so deleting a session also invalidates the export
+            Object[] row = chatSessionRepository.findExportVersion(user).get(0);
+            version = row[0] + "/" + row[1];
+        }
+        return user.getId() + ":" + (sessionId != null ? sessionId : "all") + ":" + (pdf ? "pdf" : "csv") + ":" + version;
+    }
+
+    private ExportJob findOwnedJob(String email, String jobId) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        ExportJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(user.getId())) {
+            throw new RuntimeException("Export job not found");
+        }
+        return job;
+    }
+
+    private boolean isPdfFormat(String format) {
+        if ("pdf".equalsIgnoreCase(format)) {
+            return true;
+        } else if ("csv".equalsIgnoreCase(format)) {
+            return false;
+        } else {
+            throw new RuntimeException("Unsupported export format: " + format);
+        }
+    }
+
+    private ExportJobStatus toStatus(ExportJob job) {
+        return new ExportJobStatus(
+                job.id,
+                job.status.name(),
+                job.format,
+                job.sessionId,
+                job.sizeBytes,
+                job.error,
+                job.createdAt,
+                job.completedAt,
+                job.status == Status.COMPLETED ? "/api/chat/export/jobs/" + job.id + "/download" : null
+        );
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete export spool file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private static class ExportJob {
+
+        private final String id;
+        private final Long userId;
+        private final Long sessionId;
+        private final String format;
+        private final String cacheKey;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final long createdAtMillis = System.currentTimeMillis();
+
+        private volatile Status status = Status.QUEUED;
+        private volatile Long sizeBytes;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        ExportJob(String id, Long userId, Long sessionId, String format, String cacheKey) {
+            this.id = id;
+            this.userId = userId;
+            this.sessionId = sessionId;
+            this.format = format;
+            this.cacheKey = cacheKey;
+        }
+
+        void complete(CachedArtifact artifact) {
+            sizeBytes = artifact.size();
+            completedAt = LocalDateTime.now();
+            status = Status.COMPLETED;
+        }
+
+        void fail(String message) {
+            error = message;
+            completedAt = LocalDateTime.now();
+            status = Status.FAILED;
+        }
+    }
+
+    private static final class CachedArtifact {
+
+        private final Path path;
+        private final long size;
+        private final long createdAt;
+        private volatile long lastAccess;
+
+        CachedArtifact(Path path, long size, long createdAt) {
+            this.path = path;
+            this.size = size;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+
+        Path path() {
+            return path;
+        }
+
+        long size() {
+            return size;
+        }
+
+        long createdAt() {
+            return createdAt;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.campusconnect.service;
 
+import com.campusconnect.dto.GroqCompletion;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -33,64 +47,335 @@ public class GroqService {
     @Value("${groq.max.tokens}")
     private int maxTokens;
 
+    // In-flight LLM calls are bounded by upstream capacity rather than by request threads
+    @Value("${groq.max.concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${groq.acquire.timeout.ms:5000}")
+    private long acquireTimeoutMs;
+
+    @Value("${groq.timeout.ms:60000}")
+    private long timeoutMs;
+
     private final WebClient.Builder webClientBuilder;
     private final ObjectMapper objectMapper;
 
-    public String generateResponse(String userMessage, String category, List<Map<String, String>> conversationHistory) {
+    private Semaphore permits;
+
+    @PostConstruct
+    void initPermits() {
+        permits = new Semaphore(maxConcurrent, true);
+    }
+
+    private static final String FALLBACK_RESPONSE = "I apologize, but I'm having trouble processing your request right now. Please try again later or contact support if the issue persists.";
+    private static final String BUSY_RESPONSE = "I'm handling a lot of questions right now. Please try again in a moment.";
+    private static final Duration PERMIT_RETRY = Duration.ofMillis(50);
+    // Rough tokenizer ratio for English text, used when a stream ends before Groq reports usage
+    private static final int CHARS_PER_TOKEN = 4;
+
+    public GroqCompletion generateCompletion(String userMessage, String category, List<Map<String, String>> conversationHistory) {
+        long buildStart = System.nanoTime();
+        Map<String, Object> requestBody = buildRequestBody(userMessage, category, conversationHistory, false);
+        long promptBuildMs = elapsedMs(buildStart);
+
+        long waitStart = System.nanoTime();
+        boolean acquired = false;
         try {
-            WebClient webClient = webClientBuilder.build();
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                log.warn("Groq concurrency limit ({}) reached, returning busy response", maxConcurrent);
+                return GroqCompletion.unanswered(BUSY_RESPONSE, GroqCompletion.BUSY, promptBuildMs, elapsedMs(waitStart));
+            }
 
-            // Build messages array
-            List<Map<String, String>> messages = new ArrayList<>();
-            
-            // System message with context
-            String systemMessage = buildSystemMessage(category);
-            messages.add(Map.of("role", "system", "content", systemMessage));
-            
-            // Add conversation history
-            if (conversationHistory != null && !conversationHistory.isEmpty()) {
-                messages.addAll(conversationHistory);
+            // Make API call
+            String response = callGroq(requestBody).block();
+
+            GroqCompletion completion = parseCompletion(response, promptBuildMs, elapsedMs(waitStart));
+            log.info("Groq API response generated successfully");
+            return completion;
+
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
             }
-            
-            // Add current user message
-            messages.add(Map.of("role", "user", "content", userMessage));
+            log.error("Error calling Groq API: {}", e.getMessage(), e);
+            return GroqCompletion.unanswered(FALLBACK_RESPONSE, failureOutcome(e), promptBuildMs, elapsedMs(waitStart));
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+        }
+    }
 
-            // Build request body
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", model);
-            requestBody.put("messages", messages);
-            requestBody.put("temperature", temperature);
-            requestBody.put("max_tokens", maxTokens);
+    /**
+     * Non-blocking variant of {@link #generateCompletion}; waiting for a permit parks no thread
+     * (see {@link #acquirePermit()}).
+     */
+    public Mono<GroqCompletion> generateCompletionReactive(String userMessage, String category, List<Map<String, String>> conversationHistory) {
+        return Mono.defer(() -> {
+            long buildStart = System.nanoTime();
+            Map<String, Object> requestBody = buildRequestBody(userMessage, category, conversationHistory, false);
+            long promptBuildMs = elapsedMs(buildStart);
+            long waitStart = System.nanoTime();
 
-            // Make API call
-            String response = webClient.post()
-                    .uri(apiUrl)
-                    .header("Authorization", "Bearer " + apiKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .onStatus(
-                        status -> status.is4xxClientError() || status.is5xxServerError(),
-                        clientResponse -> clientResponse.bodyToMono(String.class)
-                            .map(errorBody -> {
-                                log.error("Groq API error response: {}", errorBody);
-                                return new RuntimeException("Groq API error: " + errorBody);
+            return Mono.usingWhen(
+                            acquirePermit(),
+                            acquired -> acquired
+                                    ? callGroq(requestBody).map(response -> parseCompletion(response, promptBuildMs, elapsedMs(waitStart)))
+                                    : Mono.fromSupplier(() -> GroqCompletion.unanswered(BUSY_RESPONSE, GroqCompletion.BUSY, promptBuildMs, elapsedMs(waitStart))),
+                            acquired -> Mono.fromRunnable(() -> {
+                                if (acquired) {
+                                    permits.release();
+                                }
                             })
                     )
-                    .bodyToMono(String.class)
-                    .block();
+                    .doOnNext(completion -> log.info("Groq API response generated successfully"))
+                    .onErrorResume(e -> {
+                        log.error("Error calling Groq API: {}", e.getMessage(), e);
+                        return Mono.just(GroqCompletion.unanswered(FALLBACK_RESPONSE, failureOutcome(e), promptBuildMs, elapsedMs(waitStart)));
+                    });
+        });
+    }
 
-            // Parse response
-            JsonNode jsonResponse = objectMapper.readTree(response);
-            String aiResponse = jsonResponse.get("choices").get(0).get("message").get("content").asText();
+    /**
+     * Streams the answer as content deltas using Groq's server-sent events. Demand from the
+     * subscriber is propagated to the HTTP connection, so a slow client slows the upstream read.
+     * {@code onFinish} is called exactly once, before the stream terminates, with what the
+     * answer accumulated: the full answer and Groq's usage on completion, or the partial answer
+     * with estimated usage when the stream fails midway (then the error is propagated, since a
+     * fallback text would be appended to tokens the client already has) or is cancelled.
+     */
+    public Flux<String> streamResponse(String userMessage, String category, List<Map<String, String>> conversationHistory,
+                                       Consumer<GroqCompletion> onFinish) {
+        return Flux.defer(() -> {
+            long buildStart = System.nanoTime();
+            Map<String, Object> requestBody = buildRequestBody(userMessage, category, conversationHistory, true);
+            long promptBuildMs = elapsedMs(buildStart);
+            long waitStart = System.nanoTime();
+            StreamState state = new StreamState(waitStart, promptChars(requestBody));
+            Runnable finish = () -> {
+                if (!state.finished) {
+                    state.finished = true;
+                    onFinish.accept(state.toCompletion(promptBuildMs, elapsedMs(waitStart)));
+                }
+            };
 
-            log.info("Groq API response generated successfully");
-            return aiResponse;
+            return Flux.usingWhen(
+                            acquirePermit(),
+                            acquired -> {
+                                if (acquired) {
+                                    state.requested = true;
+                                    return streamGroq(requestBody, state);
+                                }
+                                state.outcome = GroqCompletion.BUSY;
+                                return Flux.just(BUSY_RESPONSE);
+                            },
+                            acquired -> Mono.fromRunnable(() -> {
+                                if (acquired) {
+                                    permits.release();
+                                }
+                            })
+                    )
+                    .onErrorResume(e -> {
+                        log.error("Error streaming from Groq API: {}", e.getMessage(), e);
+                        state.outcome = failureOutcome(e);
+                        return state.content.length() > 0 ? Flux.error(e) : Flux.just(FALLBACK_RESPONSE);
+                    })
+                    .doOnNext(state::append)
+                    .doOnComplete(finish)
+                    .doOnError(e -> finish.run())
+                    .doOnCancel(() -> {
+                        if (GroqCompletion.OK.equals(state.outcome)) {
+                            state.outcome = GroqCompletion.CANCELLED;
+                        }
+                        finish.run();
+                    });
+        });
+    }
+
+    /**
+     * Takes a permit without parking a thread. Only free permits with no blocking caller queued
+     * are taken, so reactive calls do not barge past {@link #generateCompletion} callers waiting
+     * on the fair semaphore; otherwise this retries on a timer until {@code groq.acquire.timeout.ms}.
+     */
+    private Mono<Boolean> acquirePermit() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        return Mono.defer(() -> Mono.just(tryAcquireFair()))
+                .flatMap(acquired -> acquired || System.nanoTime() >= deadline
+                        ? Mono.just(acquired)
+                        : Mono.delay(PERMIT_RETRY).then(Mono.error(PermitRetry.INSTANCE)))
+                .retryWhen(Retry.indefinitely().filter(PermitRetry.class::isInstance));
+    }
+
+    private boolean tryAcquireFair() {
+        try {
+            // Unlike tryAcquire(), the timed form honours the semaphore's fairness
+            return permits.tryAcquire(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static int promptChars(Map<String, Object> requestBody) {
+        int chars = 0;
+        Object messages = requestBody.get("messages");
+        if (messages instanceof List<?> list) {
+            for (Object message : list) {
+                if (message instanceof Map<?, ?> map && map.get("content") instanceof String content) {
+                    chars += content.length();
+                }
+            }
+        }
+        return chars;
+    }
+
+    private Map<String, Object> buildRequestBody(String userMessage, String category,
+                                                 List<Map<String, String>> conversationHistory, boolean stream) {
+        // Build messages array
+        List<Map<String, String>> messages = new ArrayList<>();
 
+        // System message with context
+        String systemMessage = buildSystemMessage(category);
+        messages.add(Map.of("role", "system", "content", systemMessage));
+
+        // Add conversation history
+        if (conversationHistory != null && !conversationHistory.isEmpty()) {
+            messages.addAll(conversationHistory);
+        }
+
+        // Add current user message
+        messages.add(Map.of("role", "user", "content", userMessage));
+
+        // Build request body
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", messages);
+        requestBody.put("temperature", temperature);
+        requestBody.put("max_tokens", maxTokens);
+        if (stream) {
+            requestBody.put("stream", true);
+        }
+        return requestBody;
+    }
+
+    private Mono<String> callGroq(Map<String, Object> requestBody) {
+        return webClientBuilder.build().post()
+                .uri(apiUrl)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(
+                    status -> status.is4xxClientError() || status.is5xxServerError(),
+                    clientResponse -> clientResponse.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(errorBody -> {
+                            log.error("Groq API error response: {}", errorBody);
+                            // Keeps the status so the outcome can be told apart as client or server error
+                            return new WebClientResponseException(clientResponse.statusCode().value(),
+                                    "Groq API error: " + errorBody, null, null, null);
+                        })
+                )
+                .bodyToMono(String.class)
+                .timeout(Duration.ofMillis(timeoutMs));
+    }
+
+    private Flux<String> streamGroq(Map<String, Object> requestBody, StreamState state) {
+        return webClientBuilder.build().post()
+                .uri(apiUrl)
+                .header("Authorization", "Bearer " + apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(
+                    status -> status.is4xxClientError() || status.is5xxServerError(),
+                    clientResponse -> clientResponse.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(errorBody -> {
+                            log.error("Groq API error response: {}", errorBody);
+                            // Keeps the status so the outcome can be told apart as client or server error
+                            return new WebClientResponseException(clientResponse.statusCode().value(),
+                                    "Groq API error: " + errorBody, null, null, null);
+                        })
+                )
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                // Per chunk, so a long answer that keeps streaming is not cut off
+                .timeout(Duration.ofMillis(timeoutMs))
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> !"[DONE]".equals(data))
+                .map(this::readChunk)
+                .doOnNext(state::observe)
+                .map(this::parseDelta)
+                .filter(delta -> !delta.isEmpty())
+                .doOnNext(state::receive);
+    }
+
+    private GroqCompletion parseCompletion(String response, long promptBuildMs, long llmWaitMs) {
+        try {
+            JsonNode jsonResponse = objectMapper.readTree(response);
+            String content = jsonResponse.get("choices").get(0).get("message").get("content").asText();
+            JsonNode usage = jsonResponse.path("usage");
+            return new GroqCompletion(
+                    content,
+                    GroqCompletion.OK,
+                    jsonResponse.path("model").asText(model),
+                    tokenCount(usage, "prompt_tokens"),
+                    tokenCount(usage, "completion_tokens"),
+                    promptBuildMs,
+                    llmWaitMs,
+                    null
+            );
         } catch (Exception e) {
-            log.error("Error calling Groq API: {}", e.getMessage(), e);
-            return "I apologize, but I'm having trouble processing your request right now. Please try again later or contact support if the issue persists.";
+            throw new RuntimeException("Unreadable Groq API response", e);
+        }
+    }
+
+    private JsonNode readChunk(String chunk) {
+        try {
+            return objectMapper.readTree(chunk);
+        } catch (Exception e) {
+            throw new RuntimeException("Unreadable Groq API stream chunk", e);
+        }
+    }
+
+    private String parseDelta(JsonNode chunk) {
+        JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+        return content.isMissingNode() || content.isNull() ? "" : content.asText();
+    }
+
+    private static String failureOutcome(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException response) {
+                return response.getStatusCode().is4xxClientError() ? GroqCompletion.CLIENT_ERROR : GroqCompletion.SERVER_ERROR;
+            }
+            if (cause instanceof TimeoutException || cause.getClass().getSimpleName().contains("Timeout")) {
+                return GroqCompletion.TIMEOUT;
+            }
         }
+        return GroqCompletion.ERROR;
+    }
+
+    private static Integer tokenCount(JsonNode usage, String field) {
+        JsonNode count = usage.path(field);
+        return count.isNumber() ? count.asInt() : null;
+    }
+
+    private static int estimateTokens(int chars) {
+        return (chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
     }
 
     private String buildSystemMessage(String category) {
@@ -180,4 +465,87 @@ public class GroqService {
             return false;
         }
     }
+
+    /**
+     * What a streamed answer accumulated by the time it ended. Signals of one stream are
+     * serialized, so plain fields are enough.
+     */
+    private final class StreamState {
+
+        private final long waitStart;
+        private final int promptChars;
+        private final StringBuilder content = new StringBuilder();
+        // Characters Groq actually produced; content also holds any fallback text sent instead
+        private int upstreamChars;
+        private boolean requested;
+        private boolean finished;
+        private String outcome = GroqCompletion.OK;
+        private String servedBy;
+        private Integer promptTokens;
+        private Integer completionTokens;
+        private Long firstTokenMs;
+
+        StreamState(long waitStart, int promptChars) {
+            this.waitStart = waitStart;
+            this.promptChars = promptChars;
+        }
+
+        void observe(JsonNode chunk) {
+            if (servedBy == null && chunk.hasNonNull("model")) {
+                servedBy = chunk.get("model").asText();
+            }
+            // Groq reports usage on the final chunk, under x_groq or (OpenAI style) at the top level
+            JsonNode usage = chunk.path("x_groq").path("usage");
+            if (usage.isMissingNode()) {
+                usage = chunk.path("usage");
+            }
+            if (usage.isObject()) {
+                promptTokens = tokenCount(usage, "prompt_tokens");
+                completionTokens = tokenCount(usage, "completion_tokens");
+            }
+        }
+
+        void receive(String delta) {
+            upstreamChars += delta.length();
+        }
+
+        void append(String delta) {
+            if (firstTokenMs == null) {
+                firstTokenMs = elapsedMs(waitStart);
+            }
+            content.append(delta);
+        }
+
+        GroqCompletion toCompletion(long promptBuildMs, long llmWaitMs) {
+            boolean answered = GroqCompletion.OK.equals(outcome);
+            boolean cutShort = !answered && upstreamChars > 0;
+            Integer prompt = promptTokens;
+            Integer completion = completionTokens;
+            if (requested && cutShort && prompt == null) {
+                // Usage only arrives on the final chunk; an answer cut short is charged by estimate
+                prompt = estimateTokens(promptChars);
+                completion = estimateTokens(upstreamChars);
+            }
+            return new GroqCompletion(
+                    content.toString(),
+                    outcome,
+                    answered || cutShort ? (servedBy != null ? servedBy : model) : null,
+                    prompt,
+                    completion,
+                    promptBuildMs,
+                    llmWaitMs,
+                    answered ? firstTokenMs : null
+            );
+        }
+    }
+
+    // Signals another permit attempt; preallocated since it carries no information
+    private static final class PermitRetry extends RuntimeException {
+
+        static final PermitRetry INSTANCE = new PermitRetry();
+
+        private PermitRetry() {
+            super(null, null, false, false);
+        }
+    }
 }
@@ -0,0 +1,458 @@
+package com.campusconnect.service;
+
+import com.campusconnect.model.FAQ;
+import com.campusconnect.model.Message;
+import com.campusconnect.repository.FAQRepository;
+import com.campusconnect.repository.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Cheap local handling ahead of the LLM. Keyword rules recognise small talk (greetings,
+ * thanks, acknowledgements, goodbyes) and contact/location lookups, which are answered from
+ * a fixed response table. A multinomial naive Bayes model trained on the FAQ corpus and
+ * user messages whose category the user chose infers the category of uncategorized messages. Both only act
+ * above a confidence threshold; everything else goes to Groq unchanged. The trained model is
+ * kept in {@link SnapshotService} snapshots, so a restart reuses it until the next retrain.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IntentRouter implements SnapshotParticipant {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "is", "are", "am", "was", "be", "to", "of", "in", "on", "for", "and", "or",
+            "i", "me", "my", "you", "your", "it", "this", "that", "what", "how", "do", "does", "can",
+            "there", "any", "about", "with", "please", "tell", "know", "want", "iare", "college");
+
+    private static final Set<String> SMALL_TALK_FILLER = Set.of(
+            "so", "very", "much", "a", "lot", "you", "sir", "madam", "mam", "team", "all", "there",
+            "again", "for", "the", "help", "info", "information", "and", "ok", "okay", "really", "bot");
+
+    private static final Set<String> LOOKUP_FILLER = Set.of(
+            "what", "whats", "is", "are", "the", "of", "for", "your", "iare", "college", "institute",
+            "campus", "can", "i", "get", "give", "me", "please", "how", "to", "do", "we", "you", "a",
+            "office", "details", "share", "tell", "where", "which", "in", "hyderabad", "it", "exactly");
+
+    private static final String CONTACT_RESPONSE = """
+            You can reach IARE here:
+            - **Phone**: +91 91546 78975, +91 91546 78976, 040-29705852/53/54
+            - **Admissions**: Dr. J Suresh Goud - 9966239198
+            - **Website**: www.iare.ac.in""";
+
+    private static final List<Rule> RULES = List.of(
+            new Rule("greeting", 6, Set.of("hi", "hii", "hello", "hey", "namaste", "greetings", "morning", "afternoon", "evening"),
+                    smallTalk("good"), false, true,
+                    "Hello! I'm CampusConnect AI, your guide to IARE. Ask me about admissions, courses, fees, placements or campus life."),
+            new Rule("thanks", 6, Set.of("thanks", "thank", "thx", "ty"),
+                    smallTalk("great", "helpful"), false, true,
+                    "You're welcome! Let me know if there's anything else you'd like to know about IARE."),
+            new Rule("acknowledgement", 4, Set.of("ok", "okay", "k", "cool", "great", "nice", "alright", "fine", "sure", "got", "understood"),
+                    smallTalk("it", "noted"), false, true,
+                    "Great! Feel free to ask if you have any other questions about IARE."),
+            new Rule("goodbye", 5, Set.of("bye", "goodbye", "cya", "later"),
+                    smallTalk("see", "good", "thanks", "take", "care"), false, true,
+                    "Goodbye! All the best, and come back any time you have questions about IARE."),
+            new Rule("contact", 12, Set.of("contact", "phone", "call", "mobile", "telephone", "helpline"),
+                    lookup("number", "numbers", "no"), true, false,
+                    CONTACT_RESPONSE),
+            new Rule("location", 12, Set.of("address", "location", "located", "situated", "reach"),
+                    lookup("exact", "full", "postal"), true, false,
+                    "IARE is located at Dundigal, Hyderabad - 500043, Telangana, India. For directions, call +91 91546 78975.")
+    );
+
+    private final FAQRepository faqRepository;
+    private final MessageRepository messageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${intent.enabled:true}")
+    private boolean enabled;
+
+    @Value("${intent.rule.min-confidence:0.75}")
+    private double ruleMinConfidence;
+
+    @Value("${intent.category.min-confidence:0.6}")
+    private double categoryMinConfidence;
+
+    @Value("${intent.training.days:90}")
+    private int trainingDays;
+
+    @Value("${intent.training.max-messages:50000}")
+    private int trainingMaxMessages;
+
+    private volatile CategoryModel model;
+
+    private final Map<String, LongAdder> intentCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> categoryCounts = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (model == null) {
+            train();
+        }
+    }
+
+    @Scheduled(cron = "${intent.retrain.cron:0 30 3 * * *}")
+    public void train() {
+        long started = System.currentTimeMillis();
+        CategoryModel.Builder builder = new CategoryModel.Builder();
+
+        for (FAQ faq : faqRepository.findByActiveOrderByViewCountDesc(true)) {
+            builder.add(canonicalCategory(faq.getCategory()), tokenize(faq.getQuestion() + " " + faq.getAnswer()));
+        }
+
+        int[] messages = new int[1];
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            LocalDateTime since = LocalDateTime.now().minusDays(trainingDays);
+            // Never the categories inferCategory() assigned, or the model would learn its own guesses
+            try (Stream<Object[]> rows = messageRepository.streamChosenCategoryContentByRoleSince(Message.Role.USER, since)) {
+                rows.filter(row -> canonicalCategory((String) row[1]) != null)
+                        .limit(trainingMaxMessages)
+                        .forEach(row -> {
+                            builder.add(canonicalCategory((String) row[1]), tokenize((String) row[0]));
+                            messages[0]++;
+                        });
+            }
+        });
+
+        model = builder.build();
+        log.info("Intent model trained on {} documents ({} messages), {} terms, {} categories in {} ms",
+                builder.documents, messages[0], model.vocabularySize(), model.categories.length,
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * The category the message most likely belongs to, or empty when the model is not
+     * confident enough.
+     */
+    public Optional<String> inferCategory(String message) {
+        CategoryModel current = model;
+        if (!enabled || current == null) {
+            return Optional.empty();
+        }
+        Optional<String> category = current.classify(tokenize(message), categoryMinConfidence);
+        count(categoryCounts, "chat.intent.category", "category", category.orElse("none"));
+        return category;
+    }
+
+    /**
+     * A canned answer when the message is small talk or a lookup the response table covers.
+     * Small talk is only answered on the first turn: later in a conversation "ok" or "sure"
+     * usually replies to the assistant's last message, and only the model knows to what.
+     */
+    public Optional<String> answer(String message, boolean firstTurn) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        List<String> tokens = words(message);
+        Rule best = null;
+        double bestConfidence = 0;
+        for (Rule rule : RULES) {
+            if (rule.firstTurnOnly() && !firstTurn) {
+                continue;
+            }
+            double confidence = rule.confidence(tokens);
+            if (confidence > bestConfidence) {
+                best = rule;
+                bestConfidence = confidence;
+            }
+        }
+
+        String intent = best != null && bestConfidence >= ruleMinConfidence ? best.intent() : "none";
+        count(intentCounts, "chat.intent", "intent", intent);
+        return "none".equals(intent) ? Optional.empty() : Optional.of(best.response());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("intents", totals(intentCounts));
+        snapshot.put("inferredCategories", totals(categoryCounts));
+        CategoryModel current = model;
+        snapshot.put("modelTerms", current != null ? current.vocabularySize() : 0);
+        return snapshot;
+    }
+
+    @Override
+    public String snapshotName() {
+        return "intent-model";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return 1;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        CategoryModel current = model;
+        if (current == null) {
+            throw new IllegalStateException("intent model not trained yet");
+        }
+        current.write(out);
+    }
+
+    @Override
+    public void restoreSnapshot(DataInput in) throws IOException {
+        model = CategoryModel.read(in);
+    }
+
+    private void count(Map<String, LongAdder> counts, String meter, String tag, String value) {
+        counts.computeIfAbsent(value, v -> new LongAdder()).increment();
+        Counter.builder(meter)
+                .tag(tag, value)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static Map<String, Long> totals(Map<String, LongAdder> counts) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> totals.put(entry.getKey(), entry.getValue().sum()));
+        return totals;
+    }
+
+    // Bounded to the known categories, which keeps both the model and the metric tags small
+    private static String canonicalCategory(String category) {
+        if (category == null || category.isEmpty()) {
+            return null;
+        }
+        return ChatService.CATEGORIES.stream()
+                .filter(known -> known.equalsIgnoreCase(category))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Set<String> smallTalk(String... extra) {
+        Set<String> filler = new HashSet<>(SMALL_TALK_FILLER);
+        filler.addAll(List.of(extra));
+        return Set.copyOf(filler);
+    }
+
+    private static Set<String> lookup(String... extra) {
+        Set<String> filler = new HashSet<>(LOOKUP_FILLER);
+        filler.addAll(List.of(extra));
+        return Set.copyOf(filler);
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String word : words(text)) {
+            if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+                tokens.add(word);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A templated intent: at least one keyword must appear, and the confidence is the share of
+     * the message made up of keywords and the intent's filler words. A {@code closed} rule
+     * matches only when every word is one of those: "what is the number of seats in cse" is a
+     * question about seats, not a contact lookup, and goes to the LLM. A {@code firstTurnOnly}
+     * rule is skipped once a conversation is under way.
+     */
+    private record Rule(String intent, int maxWords, Set<String> keywords, Set<String> filler, boolean closed,
+                        boolean firstTurnOnly, String response) {
+
+        double confidence(List<String> words) {
+            if (words.isEmpty() || words.size() > maxWords) {
+                return 0;
+            }
+            int keywordHits = 0;
+            int known = 0;
+            for (String word : words) {
+                if (keywords.contains(word)) {
+                    keywordHits++;
+                    known++;
+                } else if (filler.contains(word)) {
+                    known++;
+                } else if (closed) {
+                    return 0;
+                }
+            }
+            return keywordHits == 0 ? 0 : (double) known / words.size();
+        }
+    }
+
+    /**
+     * Multinomial naive Bayes with add-one smoothing, immutable once built.
+     */
+    private static final class CategoryModel {
+
+        private final String[] categories;
+        private final double[] logPriors;
+        private final Map<String, double[]> termLogProbs;
+
+        private CategoryModel(String[] categories, double[] logPriors, Map<String, double[]> termLogProbs) {
+            this.categories = categories;
+            this.logPriors = logPriors;
+            this.termLogProbs = termLogProbs;
+        }
+
+        int vocabularySize() {
+            return termLogProbs.size();
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeInt(categories.length);
+            for (int c = 0; c < categories.length; c++) {
+                out.writeUTF(categories[c]);
+                out.writeDouble(logPriors[c]);
+            }
+            out.writeInt(termLogProbs.size());
+            for (Map.Entry<String, double[]> term : termLogProbs.entrySet()) {
+                out.writeUTF(term.getKey());
+                for (double logProb : term.getValue()) {
+                    out.writeDouble(logProb);
+                }
+            }
+        }
+
+        static CategoryModel read(DataInput in) throws IOException {
+            int size = in.readInt();
+            String[] categories = new String[size];
+            double[] logPriors = new double[size];
+            for (int c = 0; c < size; c++) {
+                categories[c] = in.readUTF();
+                logPriors[c] = in.readDouble();
+            }
+            int terms = in.readInt();
+            Map<String, double[]> termLogProbs = new HashMap<>(terms * 4 / 3 + 1);
+            for (int t = 0; t < terms; t++) {
+                String term = in.readUTF();
+                double[] logProbs = new double[size];
+                for (int c = 0; c < size; c++) {
+                    logProbs[c] = in.readDouble();
+                }
+                termLogProbs.put(term, logProbs);
+            }
+            return new CategoryModel(categories, logPriors, termLogProbs);
+        }
+
+        Optional<String> classify(List<String> tokens, double minConfidence) {
+            if (categories.length < 2) {
+                return Optional.empty();
+            }
+            double[] scores = logPriors.clone();
+            boolean anyKnown = false;
+            // Terms never seen in training carry no evidence either way and are skipped
+            for (String token : tokens) {
+                double[] logProbs = termLogProbs.get(token);
+                if (logProbs == null) {
+                    continue;
+                }
+                anyKnown = true;
+                for (int c = 0; c < categories.length; c++) {
+                    scores[c] += logProbs[c];
+                }
+            }
+            if (!anyKnown) {
+                return Optional.empty();
+            }
+
+            // Posterior of the best category via a numerically stable softmax
+            int best = 0;
+            for (int c = 1; c < scores.length; c++) {
+                if (scores[c] > scores[best]) {
+                    best = c;
+                }
+            }
+            double sum = 0;
+            for (double score : scores) {
+                sum += Math.exp(score - scores[best]);
+            }
+            return 1 / sum >= minConfidence ? Optional.of(categories[best]) : Optional.empty();
+        }
+
+        static final class Builder {
+
+            private final Map<String, Integer> categoryIndex = new LinkedHashMap<>();
+            private final List<Integer> documentCounts = new ArrayList<>();
+            private final List<Long> tokenTotals = new ArrayList<>();
+            private final Map<String, Map<Integer, Integer>> termCounts = new HashMap<>();
+            private int documents;
+
+            void add(String category, List<String> tokens) {
+                if (category == null || tokens.isEmpty()) {
+                    return;
+                }
+                Integer c = categoryIndex.get(category);
+                if (c == null) {
+                    c = categoryIndex.size();
+                    categoryIndex.put(category, c);
+                    documentCounts.add(0);
+                    tokenTotals.add(0L);
+                }
+                documentCounts.set(c, documentCounts.get(c) + 1);
+                tokenTotals.set(c, tokenTotals.get(c) + tokens.size());
+                for (String token : tokens) {
+                    termCounts.computeIfAbsent(token, t -> new HashMap<>()).merge(c, 1, Integer::sum);
+                }
+                documents++;
+            }
+
+            CategoryModel build() {
+                int size = categoryIndex.size();
+                String[] categories = categoryIndex.keySet().toArray(new String[0]);
+                double[] logPriors = new double[size];
+                double[] unseen = new double[size];
+                int vocabulary = termCounts.size();
+                for (int c = 0; c < size; c++) {
+                    logPriors[c] = Math.log((double) documentCounts.get(c) / documents);
+                    unseen[c] = Math.log(1.0 / (tokenTotals.get(c) + vocabulary));
+                }
+
+                Map<String, double[]> termLogProbs = new HashMap<>();
+                termCounts.forEach((term, counts) -> {
+                    double[] logProbs = unseen.clone();
+                    counts.forEach((c, count) -> logProbs[c] = Math.log((count + 1.0) / (tokenTotals.get(c) + vocabulary)));
+                    termLogProbs.put(term, logProbs);
+                });
+                return new CategoryModel(categories, logPriors, termLogProbs);
+            }
+        }
+    }
+}
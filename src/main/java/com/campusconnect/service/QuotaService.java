@@ -0,0 +1,219 @@
+package com.campusconnect.service;
+
+import com.campusconnect.config.QuotaProperties;
+import com.campusconnect.exception.QuotaExceededException;
+import com.campusconnect.model.TokenUsage;
+import com.campusconnect.model.User;
+import com.campusconnect.repository.TokenUsageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-user token ledger and quota enforcement. The current month's usage is held in memory
+ * so checks cost no queries; increments are written behind to {@code token_usage} on a
+ * schedule. A turn is admitted while the user is under quota, so the last turn of a day may
+ * overshoot the limit by one answer.
+ */
+@Service
+@EnableConfigurationProperties(QuotaProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class QuotaService {
+
+    private final QuotaProperties properties;
+    private final TokenUsageRepository tokenUsageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // userId -> day -> usage, current month only
+    private final Map<Long, Map<LocalDate, Usage>> ledger = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private Map<UsageKey, Usage> pending = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+        for (TokenUsage row : tokenUsageRepository.findByUsageDateGreaterThanEqual(monthStart)) {
+            day(row.getUserId(), row.getUsageDate()).add(row.getPromptTokens(), row.getCompletionTokens(), row.getRequests());
+        }
+    }
+
+    /**
+     * Rejects the turn with {@link QuotaExceededException} if the user has used up the daily or
+     * monthly token allowance of their role.
+     */
+    public void checkQuota(User user) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        QuotaProperties.Limits limits = properties.limits(user.getRole());
+        LocalDate today = LocalDate.now();
+
+        if (limits.getDailyTokens() > 0 && tokensOn(user.getId(), today) >= limits.getDailyTokens()) {
+            throw new QuotaExceededException("Daily usage limit reached, please try again tomorrow",
+                    today.plusDays(1).atStartOfDay());
+        }
+        if (limits.getMonthlyTokens() > 0 && tokensInMonth(user.getId(), today) >= limits.getMonthlyTokens()) {
+            throw new QuotaExceededException("Monthly usage limit reached",
+                    today.withDayOfMonth(1).plusMonths(1).atStartOfDay());
+        }
+    }
+
+    public void record(Long userId, Integer promptTokens, Integer completionTokens) {
+        long prompt = promptTokens != null ? promptTokens : 0;
+        long completion = completionTokens != null ? completionTokens : 0;
+        LocalDate today = LocalDate.now();
+
+        day(userId, today).add(prompt, completion, 1);
+        pendingLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(new UsageKey(userId, today), key -> new Usage()).add(prompt, completion, 1);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getUsage(User user) {
+        QuotaProperties.Limits limits = properties.limits(user.getRole());
+        LocalDate today = LocalDate.now();
+
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("todayTokens", tokensOn(user.getId(), today));
+        usage.put("dailyLimit", limits.getDailyTokens() > 0 ? limits.getDailyTokens() : null);
+        usage.put("monthTokens", tokensInMonth(user.getId(), today));
+        usage.put("monthlyLimit", limits.getMonthlyTokens() > 0 ? limits.getMonthlyTokens() : null);
+        return usage;
+    }
+
+    public List<Map<String, Object>> getTopConsumers(int days, int limit) {
+        flush();
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(1, days) - 1L);
+
+        List<Map<String, Object>> consumers = new ArrayList<>();
+        for (Object[] row : tokenUsageRepository.findTopConsumers(from, to, Limit.of(Math.max(1, Math.min(limit, 100))))) {
+            long prompt = ((Number) row[4]).longValue();
+            long completion = ((Number) row[5]).longValue();
+            Map<String, Object> consumer = new LinkedHashMap<>();
+            consumer.put("userId", row[0]);
+            consumer.put("name", row[1]);
+            consumer.put("email", row[2]);
+            consumer.put("role", row[3]);
+            consumer.put("promptTokens", prompt);
+            consumer.put("completionTokens", completion);
+            consumer.put("totalTokens", prompt + completion);
+            consumer.put("requests", ((Number) row[6]).longValue());
+            consumers.add(consumer);
+        }
+        return consumers;
+    }
+
+    @Scheduled(fixedDelayString = "${quota.flush.ms:15000}", initialDelayString = "${quota.flush.ms:15000}")
+    public synchronized void flush() {
+        Map<UsageKey, Usage> batch;
+        pendingLock.writeLock().lock();
+        try {
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach((key, usage) ->
+                        tokenUsageRepository.addUsage(key.userId(), key.date(),
+                                usage.prompt.sum(), usage.completion.sum(), usage.requests.sum())));
+            } catch (RuntimeException e) {
+                log.warn("Token usage flush failed, retrying {} rows next time: {}", batch.size(), e.getMessage());
+                pendingLock.readLock().lock();
+                try {
+                    batch.forEach((key, usage) -> pending.computeIfAbsent(key, k -> new Usage())
+                            .add(usage.prompt.sum(), usage.completion.sum(), usage.requests.sum()));
+                } finally {
+                    pendingLock.readLock().unlock();
+                }
+            }
+        }
+
+        // Past months are no longer needed for enforcement
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+        for (Long userId : ledger.keySet()) {
+            ledger.computeIfPresent(userId, (id, days) -> {
+                days.keySet().removeIf(date -> date.isBefore(monthStart));
+                return days.isEmpty() ? null : days;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush token usage on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private long tokensOn(Long userId, LocalDate date) {
+        Usage usage = ledger.getOrDefault(userId, Map.of()).get(date);
+        return usage != null ? usage.tokens() : 0;
+    }
+
+    private long tokensInMonth(Long userId, LocalDate date) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        return ledger.getOrDefault(userId, Map.of()).entrySet().stream()
+                .filter(entry -> !entry.getKey().isBefore(monthStart))
+                .mapToLong(entry -> entry.getValue().tokens())
+                .sum();
+    }
+
+    private Usage day(Long userId, LocalDate date) {
+        // Inside compute so the month cleanup cannot drop the user's map in between
+        Usage[] usage = new Usage[1];
+        ledger.compute(userId, (id, days) -> {
+            Map<LocalDate, Usage> userDays = days != null ? days : new ConcurrentHashMap<>();
+            usage[0] = userDays.computeIfAbsent(date, d -> new Usage());
+            return userDays;
+        });
+        return usage[0];
+    }
+
+    private record UsageKey(Long userId, LocalDate date) {
+    }
+
+    private static final class Usage {
+
+        private final LongAdder prompt = new LongAdder();
+        private final LongAdder completion = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+
+        void add(long promptTokens, long completionTokens, long requestCount) {
+            prompt.add(promptTokens);
+            completion.add(completionTokens);
+            requests.add(requestCount);
+        }
+
+        long tokens() {
+            return prompt.sum() + completion.sum();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.campusconnect.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * In-memory state that {@link SnapshotService} saves on graceful shutdown and hands back on
+ * the next startup, so it does not have to be rebuilt from the database.
+ */
+public interface SnapshotParticipant {
+
+    /**
+     * Name of this participant's section in the snapshot file; unique per application.
+     */
+    String snapshotName();
+
+    /**
+     * Format version of the section. Bump it whenever {@link #writeSnapshot} changes; sections
+     * written with another version are ignored and the state is rebuilt as usual.
+     */
+    int snapshotVersion();
+
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    /**
+     * Restores a section of the current version. Runs before the application is ready; a
+     * participant that restores successfully skips its own startup rebuild. On an exception
+     * nothing may have been applied.
+     */
+    void restoreSnapshot(DataInput in) throws IOException;
+
+    /**
+     * Writes a nullable string of any length ({@link DataOutput#writeUTF} stops at 64 KB).
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
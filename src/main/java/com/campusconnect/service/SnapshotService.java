@@ -0,0 +1,189 @@
+package com.campusconnect.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Saves every {@link SnapshotParticipant} to one binary file on graceful shutdown and restores
+ * them when the next instance starts, so it serves warm traffic without a burst of rebuild
+ * queries. Each participant is a separately checksummed, versioned section; a missing, stale,
+ * corrupt or outdated section simply leaves that participant to rebuild itself as it would
+ * without a snapshot.
+ *
+ * <p>Only state written at shutdown is complete: anything saved while the instance kept serving
+ * would miss later FAQ deactivations and registrations. So there are no periodic checkpoints,
+ * and the file is deleted once read, so a crash of the restored instance can never bring the
+ * same state back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotService {
+
+    private static final int MAGIC = 0x43435350;
+    // Version 1 files may be periodic checkpoints
+    private static final int FORMAT_VERSION = 2;
+
+    private final List<SnapshotParticipant> participants;
+
+    @Value("${snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${snapshot.file:${SNAPSHOT_FILE:/data/snapshot.bin}}")
+    private String file;
+
+    @Value("${snapshot.max-age.minutes:60}")
+    private long maxAgeMinutes;
+
+    @PostConstruct
+    void restore() {
+        Path path = Paths.get(file);
+        if (!enabled || !Files.exists(path)) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Map<String, SnapshotParticipant> byName = new HashMap<>();
+        participants.forEach(participant -> byName.put(participant.snapshotName(), participant));
+
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                log.info("Ignoring snapshot {}: unknown format", path);
+                return;
+            }
+            long takenAt = in.readLong();
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - takenAt);
+            if (age.isNegative() || age.toMinutes() > maxAgeMinutes) {
+                log.info("Ignoring snapshot {}: taken {} minutes ago", path, age.toMinutes());
+                return;
+            }
+
+            int sections = in.readInt();
+            for (int i = 0; i < sections; i++) {
+                String name = in.readUTF();
+                int version = in.readInt();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                int checksum = in.readInt();
+
+                SnapshotParticipant participant = byName.get(name);
+                if (participant == null || participant.snapshotVersion() != version) {
+                    log.info("Skipping snapshot section {} v{}: no participant of that version", name, version);
+                } else if (checksum != crc(data)) {
+                    log.warn("Skipping snapshot section {}: checksum mismatch", name);
+                } else if (restore(participant, data)) {
+                    restored++;
+                }
+            }
+        } catch (EOFException e) {
+            log.warn("Snapshot {} is truncated; sections read so far were restored", path);
+        } catch (IOException e) {
+            log.warn("Could not read snapshot {}: {}", path, e.getMessage());
+        } finally {
+            discard(path);
+        }
+        log.info("Restored {} of {} snapshot participants in {} ms",
+                restored, participants.size(), System.currentTimeMillis() - started);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void onShutdown() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Path path = Paths.get(file);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            int written = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+
+                Map<SnapshotParticipant, byte[]> sections = new HashMap<>();
+                for (SnapshotParticipant participant : participants) {
+                    byte[] data = write(participant);
+                    if (data != null) {
+                        sections.put(participant, data);
+                    }
+                }
+                out.writeInt(sections.size());
+                for (Map.Entry<SnapshotParticipant, byte[]> section : sections.entrySet()) {
+                    out.writeUTF(section.getKey().snapshotName());
+                    out.writeInt(section.getKey().snapshotVersion());
+                    out.writeInt(section.getValue().length);
+                    out.write(section.getValue());
+                    out.writeInt(crc(section.getValue()));
+                    written++;
+                }
+            }
+            // Readers only ever see a complete file
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Snapshot of {} participants written to {} in {} ms", written, path, System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            log.warn("Could not write snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void discard(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static boolean restore(SnapshotParticipant participant, byte[] data) {
+        try {
+            participant.restoreSnapshot(new DataInputStream(new ByteArrayInputStream(data)));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore snapshot section {}, it will be rebuilt: {}", participant.snapshotName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static byte[] write(SnapshotParticipant participant) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            participant.writeSnapshot(out);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not snapshot {}: {}", participant.snapshotName(), e.getMessage());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,349 @@
+package com.campusconnect.service;
+
+import com.campusconnect.event.MessageSavedEvent;
+import com.campusconnect.model.Message;
+import com.campusconnect.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Most-asked questions per category, tracked with a Space-Saving sketch of normalized user
+ * questions: each category keeps a fixed number of counters however much traffic it sees.
+ * Counts decay exponentially so suggestions follow what students are asking lately. Only
+ * questions whose guaranteed count reaches the minimum support are suggested; callers fill
+ * the rest from their defaults.
+ *
+ * <p>Suggestions are shown to every user, so a question is only suggested once
+ * {@code suggestions.min-users} distinct users have asked it word for word, and only when
+ * every word also appears in the FAQ corpus. Messages with contact details or long digit
+ * runs (phone and roll numbers) are never counted. Sketches restored from a {@link SnapshotService} snapshot
+ * are decayed for the downtime instead of being replayed from the message history.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionService implements SnapshotParticipant {
+
+    private static final String GENERAL = "general";
+    private static final int MIN_WORDS = 3;
+    private static final int MAX_LENGTH = 160;
+    private static final int MAX_DIGITS = 4;
+
+    // Question words the FAQ corpus may not contain but any suggestion can use
+    private static final Set<String> QUESTION_WORDS = Set.of(
+            "what", "whats", "which", "when", "where", "who", "why", "how", "is", "are", "was", "do",
+            "does", "can", "could", "will", "should", "i", "we", "my", "me", "the", "a", "an", "of",
+            "for", "in", "on", "to", "there", "any", "about", "and", "or", "much", "many", "it");
+
+    private final MessageRepository messageRepository;
+    private final FaqService faqService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${suggestions.sketch.capacity:64}")
+    private int capacity;
+
+    @Value("${suggestions.half-life.hours:72}")
+    private double halfLifeHours;
+
+    @Value("${suggestions.decay.ms:600000}")
+    private long decayIntervalMs;
+
+    @Value("${suggestions.min-support:3}")
+    private double minSupport;
+
+    @Value("${suggestions.min-users:3}")
+    private int minUsers;
+
+    private final Map<String, Sketch> sketches = new ConcurrentHashMap<>();
+
+    private volatile boolean restored;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (restored) {
+            return;
+        }
+        // Replay about four half-lives of questions, weighted as if they had decayed live
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minusMinutes((long) (halfLifeHours * 4 * 60));
+        long started = System.currentTimeMillis();
+        long[] replayed = new long[1];
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = messageRepository.streamContentByRoleSince(Message.Role.USER, since)) {
+                rows.forEach(row -> {
+                    double ageHours = Duration.between((LocalDateTime) row[2], now).toMinutes() / 60.0;
+                    offer((Long) row[3], (String) row[1], (String) row[0], Math.pow(0.5, ageHours / halfLifeHours));
+                    replayed[0]++;
+                });
+            }
+        });
+        log.info("Suggestion sketches warmed from {} questions in {} ms", replayed[0], System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSaved(MessageSavedEvent event) {
+        if (event.role() == Message.Role.USER) {
+            offer(event.userId(), event.category(), event.content(), 1);
+        }
+    }
+
+    /**
+     * Up to {@code limit} of the most asked questions for the category (or across categories
+     * without one), most frequent first. May return fewer, or none on a cold start.
+     */
+    public List<String> topQuestions(String category, int limit) {
+        Sketch sketch = sketches.get(sketchKey(category));
+        return sketch != null ? sketch.top(limit, minSupport, minUsers, faqService.getVocabulary()) : List.of();
+    }
+
+    @Scheduled(fixedRateString = "${suggestions.decay.ms:600000}", initialDelayString = "${suggestions.decay.ms:600000}")
+    public void decay() {
+        double hours = decayIntervalMs / 3_600_000.0;
+        double factor = Math.pow(0.5, hours / halfLifeHours);
+        sketches.values().forEach(sketch -> sketch.decay(factor));
+    }
+
+    @Override
+    public String snapshotName() {
+        return "suggestions";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return 2;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeLong(System.currentTimeMillis());
+        Map<String, Sketch> current = Map.copyOf(sketches);
+        out.writeInt(current.size());
+        for (Map.Entry<String, Sketch> entry : current.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().write(out);
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(DataInput in) throws IOException {
+        double hours = Math.max(0, System.currentTimeMillis() - in.readLong()) / 3_600_000.0;
+        double factor = Math.pow(0.5, hours / halfLifeHours);
+        int count = in.readInt();
+        Map<String, Sketch> loaded = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            Sketch sketch = new Sketch(capacity);
+            sketch.read(in);
+            sketch.decay(factor);
+            loaded.put(key, sketch);
+        }
+        sketches.putAll(loaded);
+        restored = true;
+    }
+
+    private void offer(Long userId, String category, String content, double weight) {
+        String key = normalize(content);
+        if (key == null || userId == null) {
+            return;
+        }
+        String surface = content.trim();
+        String sketchKey = sketchKey(category);
+        sketches.computeIfAbsent(sketchKey, k -> new Sketch(capacity)).offer(key, surface, userId, weight, minUsers);
+        if (!GENERAL.equals(sketchKey)) {
+            // The uncategorized view ranks questions across all categories
+            sketches.computeIfAbsent(GENERAL, k -> new Sketch(capacity)).offer(key, surface, userId, weight, minUsers);
+        }
+    }
+
+    // Bounded to the known categories so arbitrary request values cannot grow the map
+    private static String sketchKey(String category) {
+        if (category == null || category.isEmpty()) {
+            return GENERAL;
+        }
+        return ChatService.CATEGORIES.stream()
+                .filter(known -> known.equalsIgnoreCase(category))
+                .findFirst()
+                .map(known -> known.toLowerCase(Locale.ROOT))
+                .orElse(GENERAL);
+    }
+
+    /**
+     * Lowercased words joined by single spaces, or null for messages that are not worth
+     * suggesting (too short to be a question, or too long to be a common one) or that may
+     * carry personal details (an email address, a link, a phone or roll number).
+     */
+    private static String normalize(String content) {
+        if (content == null || content.length() > MAX_LENGTH) {
+            return null;
+        }
+        String lower = content.toLowerCase(Locale.ROOT);
+        if (lower.indexOf('@') >= 0 || lower.contains("http") || lower.contains("www.")) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        int words = 0;
+        int digits = 0;
+        boolean inWord = false;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            // Years pass; phone numbers and roll numbers have longer digit runs
+            digits = Character.isDigit(c) ? digits + 1 : 0;
+            if (digits > MAX_DIGITS) {
+                return null;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord && key.length() > 0) {
+                    key.append(' ');
+                }
+                if (!inWord) {
+                    words++;
+                }
+                key.append(Character.toLowerCase(c));
+                inWord = true;
+            } else {
+                inWord = false;
+            }
+        }
+        return words >= MIN_WORDS ? key.toString() : null;
+    }
+
+    // Every word is a question word or FAQ vocabulary, which keeps names and abuse out
+    private static boolean known(String key, Set<String> vocabulary) {
+        for (String word : key.split(" ")) {
+            if (!QUESTION_WORDS.contains(word) && !vocabulary.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Space-Saving top-k: a new question takes over the least counted slot when the sketch is
+     * full, inheriting its count as the overestimation error.
+     */
+    private static final class Sketch {
+
+        private final int capacity;
+        private final Map<String, Counter> counters = new HashMap<>();
+
+        Sketch(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(String key, String surface, long userId, double weight, int maxUsers) {
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                if (counters.size() < capacity) {
+                    counter = new Counter();
+                } else {
+                    Map.Entry<String, Counter> min = counters.entrySet().stream()
+                            .min(Comparator.comparingDouble(entry -> entry.getValue().count))
+                            .orElseThrow();
+                    counters.remove(min.getKey());
+                    counter = min.getValue();
+                    counter.error = counter.count;
+                    // The inherited count is anonymous; only askers of this question count
+                    counter.users.clear();
+                }
+                counters.put(key, counter);
+            }
+            counter.count += weight;
+            // Reaching the threshold is all that matters, so the set stays tiny
+            if (counter.users.size() < maxUsers) {
+                counter.users.add(userId);
+            }
+            // Show the latest phrasing; every asker typed the same words
+            counter.surface = surface;
+        }
+
+        synchronized void decay(double factor) {
+            counters.values().forEach(counter -> {
+                counter.count *= factor;
+                counter.error *= factor;
+            });
+        }
+
+        synchronized void write(DataOutput out) throws IOException {
+            out.writeInt(counters.size());
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue().count);
+                out.writeDouble(entry.getValue().error);
+                out.writeUTF(entry.getValue().surface);
+                out.writeInt(entry.getValue().users.size());
+                for (long userId : entry.getValue().users) {
+                    out.writeLong(userId);
+                }
+            }
+        }
+
+        // A smaller configured capacity keeps the highest counters
+        synchronized void read(DataInput in) throws IOException {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String key = in.readUTF();
+                Counter counter = new Counter();
+                counter.count = in.readDouble();
+                counter.error = in.readDouble();
+                counter.surface = in.readUTF();
+                int users = in.readInt();
+                for (int u = 0; u < users; u++) {
+                    counter.users.add(in.readLong());
+                }
+                counters.put(key, counter);
+            }
+            while (counters.size() > capacity) {
+                counters.entrySet().stream()
+                        .min(Comparator.comparingDouble(entry -> entry.getValue().count))
+                        .ifPresent(min -> counters.remove(min.getKey()));
+            }
+        }
+
+        synchronized List<String> top(int limit, double minSupport, int minUsers, Set<String> vocabulary) {
+            List<Counter> ranked = new ArrayList<>();
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                Counter counter = entry.getValue();
+                if (counter.count - counter.error >= minSupport && counter.users.size() >= minUsers
+                        && known(entry.getKey(), vocabulary)) {
+                    ranked.add(counter);
+                }
+            }
+            ranked.sort(Comparator.comparingDouble((Counter counter) -> counter.count).reversed());
+            return ranked.stream().limit(limit).map(counter -> counter.surface).toList();
+        }
+    }
+
+    private static final class Counter {
+
+        private double count;
+        private double error;
+        private String surface;
+        private final Set<Long> users = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,384 @@
+package com.campusconnect.service;
+
+import com.campusconnect.dto.CursorPage;
+import com.campusconnect.dto.UserDTO;
+import com.campusconnect.event.UserChangedEvent;
+import com.campusconnect.model.User;
+import com.campusconnect.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index over user name and email for admin search. A query matches users
+ * whose name or email contains it (the same semantics as the LIKE search it replaces):
+ * candidates come from intersecting the query's trigram posting lists and are then verified.
+ * Results are ranked exact, prefix, word-prefix, then substring, name before email.
+ * Queries shorter than a trigram are answered by a scan of the in-memory documents.
+ * The documents are part of the startup snapshot; the postings are rebuilt from them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex implements SnapshotParticipant {
+
+    private static final int BUILD_BATCH = 5_000;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparingLong(Hit::userId);
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (ready) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Long afterId = 0L;
+        while (true) {
+            List<Object[]> batch = userRepository.findSearchFieldsAfter(afterId, Limit.of(BUILD_BATCH));
+            if (batch.isEmpty()) {
+                break;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : batch) {
+                    put((Long) row[0], (String) row[1], (String) row[2]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            afterId = (Long) batch.get(batch.size() - 1)[0];
+        }
+        ready = true;
+        log.info("User search index built: {} users, {} trigrams in {} ms",
+                ordinals.size(), postings.size(), System.currentTimeMillis() - started);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public String snapshotName() {
+        return "user-search";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return 1;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        if (!ready) {
+            throw new IllegalStateException("index not built yet");
+        }
+        lock.readLock().lock();
+        try {
+            out.writeInt(ordinals.size());
+            for (Doc doc : docs) {
+                if (doc != null) {
+                    out.writeLong(doc.userId());
+                    SnapshotParticipant.writeString(out, doc.name());
+                    SnapshotParticipant.writeString(out, doc.email());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<Doc> restored = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            restored.add(new Doc(in.readLong(), SnapshotParticipant.readString(in), SnapshotParticipant.readString(in)));
+        }
+        lock.writeLock().lock();
+        try {
+            restored.forEach(doc -> put(doc.userId(), doc.name(), doc.email()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.type() == UserChangedEvent.Type.DELETED) {
+                remove(event.userId());
+            } else {
+                put(event.userId(), event.name(), event.email());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Page<UserDTO> search(String query, int page, int size) {
+        List<Hit> hits = match(query);
+        int from = Math.min(page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        return new PageImpl<>(load(hits.subList(from, to)), PageRequest.of(page, size), hits.size());
+    }
+
+    public CursorPage<UserDTO> search(String query, String cursor, int size, boolean includeTotal) {
+        List<Hit> hits = match(query);
+
+        int start = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keys = CursorPage.decodeCursor(cursor, 2);
+            Hit after;
+            try {
+                after = new Hit(Long.parseLong(keys[1]), Integer.parseInt(keys[0]));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            while (start < hits.size() && RANKING.compare(hits.get(start), after) <= 0) {
+                start++;
+            }
+        }
+
+        List<Hit> window = hits.subList(start, Math.min(start + size + 1, hits.size()));
+        CursorPage<Hit> page = CursorPage.of(window, size, hit -> CursorPage.encodeCursor(hit.score(), hit.userId()),
+                includeTotal ? (long) hits.size() : null);
+        return new CursorPage<>(load(page.getItems()), page.getNextCursor(), page.isHasMore(), page.getTotalCount());
+    }
+
+    private List<Hit> match(String query) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        List<Hit> hits = new ArrayList<>();
+        if (needle.isEmpty()) {
+            return hits;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                for (Doc doc : docs) {
+                    if (doc != null) {
+                        addIfMatch(hits, doc, needle);
+                    }
+                }
+            } else {
+                for (int ordinal : candidates(needle)) {
+                    addIfMatch(hits, docs.get(ordinal), needle);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    private int[] candidates(String needle) {
+        List<IntList> lists = new ArrayList<>();
+        for (long trigram : trigrams(needle)) {
+            IntList list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntList::size));
+
+        int[] result = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int length = result.length;
+        for (int i = 1; i < lists.size() && length > 0; i++) {
+            length = intersect(result, length, lists.get(i));
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    private static int intersect(int[] result, int length, IntList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < length && j < other.size; i++) {
+            while (j < other.size && other.values[j] < result[i]) {
+                j++;
+            }
+            if (j < other.size && other.values[j] == result[i]) {
+                result[kept++] = result[i];
+            }
+        }
+        return kept;
+    }
+
+    private static void addIfMatch(List<Hit> hits, Doc doc, String needle) {
+        int score = score(doc.name(), needle, 0);
+        score = Math.max(score, score(doc.email(), needle, 5));
+        if (score > 0) {
+            hits.add(new Hit(doc.userId(), score));
+        }
+    }
+
+    // Higher is better; email matches rank just below the same kind of name match
+    private static int score(String field, String needle, int penalty) {
+        int index = field.indexOf(needle);
+        if (index < 0) {
+            return 0;
+        }
+        if (field.length() == needle.length()) {
+            return 100 - penalty;
+        }
+        if (index == 0) {
+            return 80 - penalty;
+        }
+        if (!Character.isLetterOrDigit(field.charAt(index - 1))) {
+            return 60 - penalty;
+        }
+        return 40 - penalty;
+    }
+
+    private List<UserDTO> load(List<Hit> hits) {
+        Map<Long, User> users = userRepository.findAllById(hits.stream().map(Hit::userId).toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return hits.stream()
+                .map(hit -> users.get(hit.userId()))
+                .filter(Objects::nonNull)
+                .map(UserDTO::fromUser)
+                .toList();
+    }
+
+    private void put(Long userId, String name, String email) {
+        Doc doc = new Doc(userId, normalize(name), normalize(email));
+        Integer ordinal = ordinals.get(userId);
+        if (ordinal != null) {
+            Doc previous = docs.get(ordinal);
+            if (previous != null && previous.name().equals(doc.name()) && previous.email().equals(doc.email())) {
+                return;
+            }
+            unindex(ordinal, previous);
+        } else {
+            ordinal = docs.size();
+            docs.add(null);
+            ordinals.put(userId, ordinal);
+        }
+        docs.set(ordinal, doc);
+        for (long trigram : docTrigrams(doc)) {
+            postings.computeIfAbsent(trigram, key -> new IntList()).add(ordinal);
+        }
+    }
+
+    private void remove(Long userId) {
+        Integer ordinal = ordinals.remove(userId);
+        if (ordinal != null) {
+            unindex(ordinal, docs.get(ordinal));
+            // The slot stays empty so the ordinals of other documents remain valid
+            docs.set(ordinal, null);
+        }
+    }
+
+    private void unindex(int ordinal, Doc doc) {
+        if (doc == null) {
+            return;
+        }
+        for (long trigram : docTrigrams(doc)) {
+            IntList list = postings.get(trigram);
+            if (list != null && list.remove(ordinal) && list.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private static Set<Long> docTrigrams(Doc doc) {
+        Set<Long> trigrams = trigrams(doc.name());
+        trigrams.addAll(trigrams(doc.email()));
+        return trigrams;
+    }
+
+    private static Set<Long> trigrams(String value) {
+        Set<Long> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Doc(Long userId, String name, String email) {
+    }
+
+    private record Hit(long userId, int score) {
+    }
+
+    /**
+     * Sorted set of document ordinals. Ordinals are assigned in increasing order, so adds
+     * are almost always appends.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            int index = size == 0 || values[size - 1] < value ? size : Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0 && index < size) {
+                return;
+            }
+            int insertAt = index >= 0 ? index : -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
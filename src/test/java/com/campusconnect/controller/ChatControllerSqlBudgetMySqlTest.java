@@ -0,0 +1,18 @@
+package com.campusconnect.controller;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * The SQL statement budgets against MySQL itself, where the export streams rows through
+ * Connector/J. The container's connection replaces the H2 datasource.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ChatControllerSqlBudgetMySqlTest extends ChatControllerSqlBudgetTest {
+
+    @Container
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+}
@@ -0,0 +1,229 @@
+package com.campusconnect.controller;
+
+import com.campusconnect.config.SqlStatementCounter;
+import com.campusconnect.model.ChatSession;
+import com.campusconnect.model.Message;
+import com.campusconnect.model.User;
+import com.campusconnect.repository.ChatSessionRepository;
+import com.campusconnect.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets per endpoint, counted by {@link SqlStatementCounter} exactly as in
+ * production. Each read endpoint must cost the same for a user with one session as for a user
+ * with 200, so an N+1 regression fails here instead of in the slow-request log. Runs on H2 in
+ * MySQL mode on every build; {@link ChatControllerSqlBudgetMySqlTest} repeats it on MySQL.
+ */
+// A real server: the WebSocket container bean needs one, even though requests go through MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureMockMvc
+@Import(ChatControllerSqlBudgetTest.StreamingFetchSizeOnH2.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatControllerSqlBudgetTest {
+
+    private static final String SMALL = "one-session@sql-budget.test";
+    private static final String LARGE = "many-sessions@sql-budget.test";
+    private static final int SESSIONS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @BeforeAll
+    void seed() {
+        seedUser(SMALL, 1);
+        seedUser(LARGE, SESSIONS);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/chat/sessions",
+            "/api/chat/sessions/changes",
+            "/api/chat/history/cursor",
+            "/api/chat/history/cursor?includeTotal=true"
+    })
+    void readEndpointsDoNotScaleWithSessions(String uri) throws Exception {
+        int small = statements(SMALL, uri);
+        int large = statements(LARGE, uri);
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void offsetHistoryAddsOnlyItsCount() throws Exception {
+        int small = statements(SMALL, "/api/chat/history");
+        int large = statements(LARGE, "/api/chat/history");
+
+        // Spring Data skips the COUNT when the first page is not full, as it is for one session
+        assertThat(large).isEqualTo(small + 1);
+        assertThat(large).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void sessionEndpointsDoNotScaleWithMessages() throws Exception {
+        Long sessionId = chatSessionRepository.findSummariesChangedAfter(userId(LARGE), -1).get(0).getId();
+
+        assertThat(statements(LARGE, "/api/chat/session/" + sessionId)).isLessThanOrEqualTo(4);
+        assertThat(statements(LARGE, "/api/chat/session/" + sessionId + "/messages")).isLessThanOrEqualTo(4);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "pdf"})
+    void fullExportIsTwoQueriesAfterTheUserLookup(String format) throws Exception {
+        // Streamed on the async executor; counted with the request across the async dispatch
+        int statements = statements(LARGE, "/api/chat/export?format=" + format);
+
+        // The user lookup, then one sessions query and one streamed message query
+        assertThat(statements).isEqualTo(3);
+        assertThat(statements(SMALL, "/api/chat/export?format=" + format)).isEqualTo(statements);
+    }
+
+    private int statements(String email, String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri).with(user(email))).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn();
+        } else {
+            assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        }
+        AtomicInteger count = (AtomicInteger) result.getRequest().getAttribute(SqlStatementCounter.REQUEST_ATTRIBUTE);
+        return count.get();
+    }
+
+    private Long userId(String email) {
+        return userRepository.findByEmail(email).orElseThrow().getId();
+    }
+
+    private void seedUser(String email, int sessions) {
+        User owner = new User();
+        owner.setName(email);
+        owner.setEmail(email);
+        owner.setPassword("{noop}unused");
+        owner = userRepository.save(owner);
+
+        List<ChatSession> seeded = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            ChatSession session = new ChatSession();
+            session.setUser(owner);
+            session.setTitle("Session " + i);
+            session.getMessages().add(message(session, Message.Role.USER, "What are the hostel fees? " + i));
+            session.getMessages().add(message(session, Message.Role.ASSISTANT, "The hostel fee is listed on the fees page."));
+            session.setMessageCount(2);
+            seeded.add(session);
+        }
+        chatSessionRepository.saveAll(seeded);
+    }
+
+    private static Message message(ChatSession session, Message.Role role, String content) {
+        Message message = new Message();
+        message.setSession(session);
+        message.setRole(role);
+        message.setContent(content);
+        return message;
+    }
+
+    /**
+     * The streaming queries ask for a fetch size of {@code Integer.MIN_VALUE}, which Connector/J
+     * reads as "stream rows" and H2 rejects; on H2 the negative size is dropped instead.
+     */
+    @TestConfiguration
+    static class StreamingFetchSizeOnH2 {
+
+        @Bean
+        static BeanPostProcessor h2FetchSizeFilter() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && isH2(dataSource)) {
+                        return new DelegatingDataSource(dataSource) {
+                            @Override
+                            public Connection getConnection() throws SQLException {
+                                return ignoringNegativeFetchSize(super.getConnection());
+                            }
+
+                            @Override
+                            public Connection getConnection(String username, String password) throws SQLException {
+                                return ignoringNegativeFetchSize(super.getConnection(username, password));
+                            }
+                        };
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        // The pool may already be wrapped, e.g. by the lane-aware data source
+        private static boolean isH2(DataSource dataSource) {
+            try {
+                return dataSource.isWrapperFor(HikariDataSource.class)
+                        && dataSource.unwrap(HikariDataSource.class).getJdbcUrl().startsWith("jdbc:h2:");
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private static Connection ignoringNegativeFetchSize(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                            return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{method.getReturnType()},
+                                    (statementProxy, statementMethod, statementArgs) ->
+                                            "setFetchSize".equals(statementMethod.getName()) && (int) statementArgs[0] < 0
+                                                    ? null
+                                                    : invoke(statement, statementMethod, statementArgs));
+                        }
+                        return result;
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
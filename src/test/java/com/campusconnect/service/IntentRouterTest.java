@@ -0,0 +1,71 @@
+package com.campusconnect.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentRouterTest {
+
+    private IntentRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new IntentRouter(null, null, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(router, "enabled", true);
+        ReflectionTestUtils.setField(router, "ruleMinConfidence", 0.75);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "hi",
+            "good morning",
+            "thank you so much",
+            "ok",
+            "bye, take care",
+            "what is the contact number",
+            "phone number please",
+            "Can you share the college phone numbers?",
+            "what is the helpline number of iare",
+            "iare address",
+            "where is the college located?",
+            "how to reach iare"
+    })
+    void answersSmallTalkAndLookupsLocally(String message) {
+        assertThat(router.answer(message, true)).isPresent();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "what is the total number of students in the college",
+            "what is the number of seats in cse",
+            "number of seats in ECE",
+            "how many numbers of buses are there",
+            "how do I call the placement office",
+            "can I get the phone number of the hostel warden",
+            "is mobile phone allowed in the exam hall",
+            "where is the library located",
+            "how can I reach the hostel from the bus stop",
+            "hi, what are the btech fees for 2025",
+            "thanks, and what about the hostel fee",
+            "ok but is hostel available for first years"
+    })
+    void leavesRealQuestionsToTheModel(String message) {
+        assertThat(router.answer(message, true)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ok", "sure", "fine", "okay great", "thank you", "hi"})
+    void leavesSmallTalkMidConversationToTheModel(String message) {
+        assertThat(router.answer(message, false)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"what is the contact number", "where is the college located?"})
+    void answersLookupsMidConversation(String message) {
+        assertThat(router.answer(message, false)).isPresent();
+    }
+}